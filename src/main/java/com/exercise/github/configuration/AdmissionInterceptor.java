@@ -0,0 +1,43 @@
+package com.exercise.github.configuration;
+
+import com.exercise.github.exceptions.TooManyRequestsException;
+import com.exercise.github.services.AdmissionService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits API requests through the {@link AdmissionService} before they reach the controller, and records the
+ * client in the `github.admission.client` request attribute for the fair queuing of its upstream work.
+ * Rejected requests fail with {@link TooManyRequestsException}, answered as 429 by the controller advice.
+ */
+@Component
+@ConditionalOnProperty(name = "github.admission.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    public static final String CLIENT_ATTRIBUTE = AdmissionService.CLIENT_CONTEXT_KEY;
+
+    @Value("${github.admission.api-key-header:X-API-Key}")
+    private String apiKeyHeader;
+
+    private final AdmissionService admissionService;
+
+    @Override
+    public boolean preHandle(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
+                             @NotNull Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // the result of an admitted request is being written
+        }
+        String client = admissionService.resolveClient(request.getHeader(apiKeyHeader), request.getRemoteAddr());
+        admissionService.admit(client);
+        request.setAttribute(CLIENT_ATTRIBUTE, client);
+        return true;
+    }
+}
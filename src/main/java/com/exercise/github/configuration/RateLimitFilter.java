@@ -0,0 +1,90 @@
+package com.exercise.github.configuration;
+
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.services.RateLimitBudget;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+
+/**
+ * Charges every upstream call against the {@link RateLimitBudget} and corrects the budget from the
+ * `X-RateLimit-Remaining` and `X-RateLimit-Reset` headers of the response.
+ * Calls made while the budget is exhausted fail with {@link RateLimitExceededException} without reaching GitHub.
+ * Applied to the `WebClient` as a filter and to the virtual-thread `RestClient` as an interceptor.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter implements ExchangeFilterFunction, ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final RateLimitBudget budget; // Shared with the other instances when github.ratelimit.backend=redis
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull ClientRequest request, @NotNull ExchangeFunction next) {
+        return onBudget(this::acquire)
+                .flatMap(acquired -> next.exchange(request))
+                .flatMap(response -> onBudget(() -> {
+                    record(response.headers().asHttpHeaders());
+                    return response;
+                }));
+    }
+
+    @NotNull
+    @Override
+    public ClientHttpResponse intercept(@NotNull HttpRequest request, byte @NotNull [] body,
+                                        @NotNull ClientHttpRequestExecution execution) throws IOException {
+        acquire();
+        ClientHttpResponse response = execution.execute(request, body);
+        record(response.getHeaders());
+        return response;
+    }
+
+    /**
+     * Runs a budget operation, off the event loop if the budget blocks on I/O.
+     */
+    private <T> Mono<T> onBudget(Callable<T> operation) {
+        Mono<T> mono = Mono.fromCallable(operation);
+        return budget.isBlocking() ? mono.subscribeOn(Schedulers.boundedElastic()) : mono;
+    }
+
+    private boolean acquire() {
+        if (!budget.tryAcquire()) {
+            throw new RateLimitExceededException(budget.resetAt());
+        }
+        return true;
+    }
+
+    private void record(HttpHeaders headers) {
+        String remaining = headers.getFirst(REMAINING_HEADER);
+        String reset = headers.getFirst(RESET_HEADER);
+        if (remaining == null || reset == null) {
+            return;
+        }
+        try {
+            budget.update(Long.parseLong(remaining), Instant.ofEpochSecond(Long.parseLong(reset)));
+        } catch (NumberFormatException ex) {
+            logger.warn("Ignoring malformed rate-limit headers: remaining={}, reset={}", remaining, reset);
+        }
+    }
+}
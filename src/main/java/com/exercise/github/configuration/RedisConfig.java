@@ -0,0 +1,33 @@
+package com.exercise.github.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * A configuration class for the Redis pub/sub listener used by the shared repository cache.
+ * The connection itself is configured by Spring Boot from the `spring.data.redis.*` properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "github.cache.backend", havingValue = "redis")
+public class RedisConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    /**
+     * Creates the container that delivers cache invalidations published by the other instances.
+     *
+     * @param connectionFactory the Redis connection factory
+     * @return a new RedisMessageListenerContainer instance
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        logger.info("Creating Redis listener container for cache invalidations"); // Log the shared cache setup
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
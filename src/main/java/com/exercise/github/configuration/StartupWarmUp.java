@@ -0,0 +1,101 @@
+package com.exercise.github.configuration;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.exceptions.models.ErrorResponse;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.ChangeEvent;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.GithubRepoResponse;
+import com.exercise.github.models.Repository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warms up the JSON codecs and the `WebClient` stack before the application reports itself ready.
+ * <p>
+ * Application runners complete before the readiness state flips to `ACCEPTING_TRAFFIC`, so a new replica only gets
+ * traffic once the models have been serialized and deserialized a few times and the `WebClient` has made real
+ * requests, to this instance's own liveness probe, loading the connector, codec and server classes on the way.
+ * No call is made to GitHub. Failures are logged and do not keep the instance from becoming ready.
+ */
+@Component
+@ConditionalOnProperty(name = "github.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class StartupWarmUp implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+    private static final String SAMPLE_LISTING = "[{\"name\":\"warm-up\",\"fork\":false,\"owner\":{\"login\":\"warm-up\"},\"private\":false}]";
+    private static final ParameterizedTypeReference<Map<String, Object>> HEALTH = new ParameterizedTypeReference<>() {
+    };
+
+    @Value("${github.warmup.iterations:20}")
+    private int iterations = 20; // Rounds of each warm-up step
+
+    @Value("${github.warmup.timeout:10s}")
+    private Duration timeout = Duration.ofSeconds(10); // Upper bound on the delay added to startup
+
+    private final WebClient.Builder builder;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            warmUpJson();
+            warmUpWebClient();
+            logger.info("Warmed up in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis()); // Log the duration
+        } catch (Exception ex) {
+            logger.warn("Warm-up failed, accepting traffic anyway", ex);
+        }
+    }
+
+    private void warmUpJson() throws JsonProcessingException {
+        List<Repository> repositories = List.of(new Repository("warm-up", "warm-up",
+                List.of(new Branch("main", new Commit("0".repeat(40))))));
+        for (int i = 0; i < iterations; i++) {
+            objectMapper.readValue(SAMPLE_LISTING, GithubRepoResponse[].class);
+            String json = objectMapper.writeValueAsString(repositories);
+            objectMapper.readValue(json, new TypeReference<List<Repository>>() {
+            });
+            objectMapper.writeValueAsString(new ChangeEvent(ChangeEvent.Type.BRANCH_MOVED, "warm-up", "warm-up", "main", "1", "0"));
+            objectMapper.writeValueAsString(new ErrorResponse(HttpStatus.NOT_FOUND.value(),
+                    new GithubUserNotFoundException("warm-up").getMessage()));
+        }
+    }
+
+    private void warmUpWebClient() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            return; // no embedded server to call
+        }
+        // Built from the shared builder, so it warms the same connector resources and codecs as the GitHub clients
+        WebClient client = builder.clone().baseUrl("http://localhost:" + port).build();
+        Flux.range(0, iterations)
+                .concatMap(i -> client.get()
+                        .uri("/actuator/health/liveness")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(HEALTH))
+                .then()
+                .block(timeout);
+    }
+}
@@ -0,0 +1,118 @@
+package com.exercise.github.configuration;
+
+import com.exercise.github.models.Span;
+import com.exercise.github.services.Tracer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Starts the root span of every sampled API request, records it in the `github.tracing.span` request attribute for
+ * the controllers to put in the Reactor context, and ends it once the response is complete, including responses
+ * written asynchronously. Root spans are named after the matched route, e.g. `GET /api/repositories/{username}`,
+ * so that span names stay few; the username is an attribute. Sampled responses carry the trace id in the
+ * `X-Trace-Id` header.
+ */
+@Component
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String SPAN_ATTRIBUTE = Tracer.SPAN_CONTEXT_KEY;
+    private static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        return !tracer.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        Span span = tracer.startRootSpan(request.getMethod(), request.getHeader("traceparent")); // named once routed
+        if (span == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        span.getAttributes().put("http.method", request.getMethod());
+        span.getAttributes().put("http.target", request.getRequestURI());
+        request.setAttribute(SPAN_ATTRIBUTE, span);
+        response.setHeader(TRACE_ID_HEADER, span.getTraceId());
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            route(span, request);
+            if (async) {
+                request.getAsyncContext().addListener(new SpanEndingListener(span, response));
+            } else {
+                end(span, response);
+            }
+        }
+    }
+
+    /**
+     * Names the span after the route the request was mapped to, and records the username it addressed.
+     */
+    private static void route(Span span, HttpServletRequest request) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route == null) {
+            return; // not mapped, e.g. rejected by a filter
+        }
+        span.setName(request.getMethod() + " " + route);
+        span.getAttributes().put("http.route", route.toString());
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("username") != null) {
+            span.getAttributes().put("github.user", variables.get("username").toString());
+        }
+    }
+
+    private void end(Span span, HttpServletResponse response) {
+        span.getAttributes().put("http.status", Integer.toString(response.getStatus()));
+        tracer.end(span, response.getStatus() >= 500 ? "HTTP " + response.getStatus() : null);
+    }
+
+    private final class SpanEndingListener implements AsyncListener {
+        private final Span span;
+        private final HttpServletResponse response;
+
+        private SpanEndingListener(Span span, HttpServletResponse response) {
+            this.span = span;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            end(span, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            tracer.end(span, "timeout");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            tracer.end(span, String.valueOf(event.getThrowable()));
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener stays registered for the rest of the request
+        }
+    }
+}
@@ -3,13 +3,21 @@ package com.exercise.github.configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
 /**
  * A configuration class for creating a `WebClient` instance with the base URL set to the GitHub API base URL.
  * This configuration class uses the `github.api.base.url` property to set the base URL for the `WebClient` instance.
+ * When `github.engine` is set to `virtual-threads`, it also creates the blocking `RestClient` used by that engine.
  */
 @Configuration
 public class WebClientConfig {
@@ -21,13 +29,39 @@ public class WebClientConfig {
     /**
      * Creates a new WebClient with the base URL set to the GitHub API base URL.
      *
+     * @param rateLimitFilter the filter charging every call against the GitHub rate-limit budget
      * @return a new WebClient instance
      */
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(RateLimitFilter rateLimitFilter) {
         logger.info("Creating WebClient with base URL: {}", githubApiBaseUrl); // Log the base URL
         return WebClient.builder()
                 .baseUrl(githubApiBaseUrl) // Set the base URL for the client
+                .filter(rateLimitFilter)
+                .build();
+    }
+
+    /**
+     * Creates a blocking RestClient with the base URL set to the GitHub API base URL.
+     * All requests share one JDK HttpClient, and with it one connection pool; the client runs its
+     * internal tasks on virtual threads.
+     *
+     * @param builder the RestClient builder configured with the application's message converters
+     * @param rateLimitFilter the interceptor charging every call against the GitHub rate-limit budget
+     * @return a new RestClient instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "github.engine", havingValue = "virtual-threads")
+    public RestClient githubRestClient(RestClient.Builder builder, RateLimitFilter rateLimitFilter) {
+        logger.info("Creating virtual-thread RestClient with base URL: {}", githubApiBaseUrl); // Log the base URL
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        return builder
+                .baseUrl(githubApiBaseUrl) // Set the base URL for the client
+                .requestFactory(new JdkClientHttpRequestFactory(httpClient))
+                .requestInterceptor(rateLimitFilter)
                 .build();
     }
 }
@@ -0,0 +1,26 @@
+package com.exercise.github.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * A configuration class registering the {@link AdmissionInterceptor} in front of the repository endpoints,
+ * when admission control is enabled.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<AdmissionInterceptor> admissionInterceptor;
+
+    public WebMvcConfig(ObjectProvider<AdmissionInterceptor> admissionInterceptor) {
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        admissionInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/repositories", "/api/repositories/**"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.exercise.github.controllers;
+
+import com.exercise.github.models.ChangeEvent;
+import com.exercise.github.services.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+    private final ChangeFeedService changeFeedService;
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedController.class);
+
+    /**
+     * Streams the changes to the repositories and branches of the specified user as server-sent events, named after
+     * the change type. The stream completes if the client falls too far behind, and it should then resubscribe.
+     *
+     * @param username the username of the user to watch
+     * @return a Flux of server-sent change events
+     */
+    @GetMapping(value = "/repositories/{username}/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEvent>> getRepositoryChanges(@PathVariable String username) {
+        logger.info("Change feed subscription received for user: {}", username);
+
+        AtomicLong sequence = new AtomicLong();
+        return changeFeedService.subscribe(username)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(Long.toString(sequence.incrementAndGet()))
+                        .event(event.getType().name().toLowerCase(Locale.ROOT))
+                        .build())
+                .doOnCancel(() -> logger.debug("Change feed subscriber of user {} disconnected", username));
+    }
+}
@@ -0,0 +1,32 @@
+package com.exercise.github.controllers;
+
+import com.exercise.github.models.ClientUsage;
+import com.exercise.github.services.AdmissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exposes the per-client admission statistics at `/actuator/clients`.
+ */
+@Component
+@Endpoint(id = "clients")
+@ConditionalOnProperty(name = "github.admission.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ClientUsageEndpoint {
+    private final AdmissionService admissionService;
+
+    /**
+     * Returns the usage of every known client, most active first.
+     *
+     * @return the usage of every known client
+     */
+    @ReadOperation
+    public List<ClientUsage> clients() {
+        return admissionService.usage();
+    }
+}
@@ -1,17 +1,27 @@
 package com.exercise.github.controllers;
 
+import com.exercise.github.configuration.AdmissionInterceptor;
+import com.exercise.github.configuration.TracingFilter;
 import com.exercise.github.exceptions.GithubUserNotFoundException;
 import com.exercise.github.exceptions.InvalidUsernameException;
 import com.exercise.github.exceptions.MediaTypeNotSupportedException;
 import com.exercise.github.models.Repository;
+import com.exercise.github.models.Span;
+import com.exercise.github.services.AdmissionService;
 import com.exercise.github.services.GithubService;
+import com.exercise.github.services.Tracer;
+import com.exercise.github.services.UpstreamExecutor;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
@@ -19,16 +29,23 @@ public class GithubController {
     private final GithubService githubService;
     private static final Logger logger = LoggerFactory.getLogger(GithubController.class);
 
+    @Value("${github.request.timeout:10s}")
+    private Duration requestTimeout = Duration.ofSeconds(10); // Upstream calls still queued after this are dropped
+
     /**
      * Get non-fork repositories for the specified user.
      *
      * @param username the username of the user to get repositories for
      * @param acceptHeader the accept header in the request
+     * @param client the client admitted by the admission interceptor, or null if admission control is disabled
+     * @param span the span of the request started by the tracing filter, or null if the request is not traced
      * @return a Flux of Repository objects
      */
     @GetMapping(value = "/repositories/{username}")
     public Flux<Repository> getNonForkRepositories(@PathVariable String username,
-                                                   @RequestHeader("Accept") String acceptHeader) {
+                                                   @RequestHeader("Accept") String acceptHeader,
+                                                   @RequestAttribute(name = AdmissionInterceptor.CLIENT_ATTRIBUTE, required = false) String client,
+                                                   @RequestAttribute(name = TracingFilter.SPAN_ATTRIBUTE, required = false) Span span) {
         logger.info("Request received for user: {} with accept header: {}", username, acceptHeader);
 
         return Mono.just(acceptHeader)
@@ -36,7 +53,10 @@ public class GithubController {
                 .switchIfEmpty(Mono.error(new MediaTypeNotSupportedException("XML format is not supported")))
                 .thenMany(githubService.getNonForkRepositories(username))
                 .switchIfEmpty(Mono.error(new GithubUserNotFoundException(username)))
-                .doOnError(ex -> logger.error("Error occurred while getting repositories for user: {}", username, ex));
+                .doOnError(ex -> logger.error("Error occurred while getting repositories for user: {}", username, ex))
+                .contextWrite(context -> client == null ? context : context.put(AdmissionService.CLIENT_CONTEXT_KEY, client))
+                .contextWrite(context -> span == null ? context : context.put(Tracer.SPAN_CONTEXT_KEY, span))
+                .contextWrite(context -> context.put(UpstreamExecutor.DEADLINE_CONTEXT_KEY, Instant.now().plus(requestTimeout)));
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.exercise.github.controllers;
+
+import com.exercise.github.exceptions.InvalidWebhookSignatureException;
+import com.exercise.github.services.GithubWebhookService;
+import com.exercise.github.services.WebhookSignatureVerifier;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class GithubWebhookController {
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final GithubWebhookService webhookService;
+    private static final Logger logger = LoggerFactory.getLogger(GithubWebhookController.class);
+
+    /**
+     * Receives a GitHub webhook delivery and queues it to update the cached repositories and branches.
+     * Handled event types are push, create, delete, repository and fork, all others are acknowledged and ignored.
+     *
+     * @param eventType the X-GitHub-Event header naming the event type
+     * @param deliveryId the X-GitHub-Delivery header identifying the delivery
+     * @param signature the X-Hub-Signature-256 header with the HMAC of the payload
+     * @param payload the raw request body
+     * @return 202 Accepted once the delivery is queued
+     * @throws InvalidWebhookSignatureException if the signature is missing or invalid
+     */
+    @PostMapping("/webhooks/github")
+    public ResponseEntity<Void> receiveWebhook(@RequestHeader("X-GitHub-Event") String eventType,
+                                               @RequestHeader("X-GitHub-Delivery") String deliveryId,
+                                               @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+                                               @RequestBody byte[] payload) {
+        logger.debug("Webhook delivery received: {} ({})", deliveryId, eventType);
+
+        signatureVerifier.verify(payload, signature);
+        webhookService.submit(eventType, deliveryId, payload);
+
+        return ResponseEntity.accepted().build();
+    }
+}
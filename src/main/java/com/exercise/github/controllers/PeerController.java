@@ -0,0 +1,74 @@
+package com.exercise.github.controllers;
+
+import com.exercise.github.exceptions.InvalidPeerSecretException;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.GithubService;
+import com.exercise.github.services.PeerClient;
+import com.exercise.github.services.RepositoryCache;
+import com.exercise.github.services.UpstreamExecutor;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@ConditionalOnProperty(name = "github.peers.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PeerController {
+    private final GithubService githubService;
+    private final PeerClient peerClient;
+    private final RepositoryCache repositoryCache;
+    private static final Logger logger = LoggerFactory.getLogger(PeerController.class);
+
+    @Value("${github.peers.timeout:5s}")
+    private Duration peerTimeout = Duration.ofSeconds(5); // The forwarding peer stops waiting after this
+
+    /**
+     * Serves a miss forwarded by another peer for a username owned by this instance.
+     * The listing is fetched here, never forwarded again, so peers with diverging configuration cannot loop.
+     * Only peers may call it: it bypasses admission control, so calls without the shared peer secret are rejected.
+     *
+     * @param username the username of the user to get repositories for
+     * @param secret the shared peer secret sent by the forwarding peer
+     * @return a Mono of the repositories, empty if the user has none
+     * @throws InvalidPeerSecretException if the secret is missing or wrong
+     */
+    @GetMapping(value = PeerClient.PEER_REPOSITORIES_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Repository>> getOwnedRepositories(@PathVariable String username,
+                                                       @RequestHeader(name = PeerClient.PEER_SECRET_HEADER, required = false) String secret) {
+        if (!peerClient.isPeerSecret(secret)) {
+            throw new InvalidPeerSecretException();
+        }
+        logger.debug("Forwarded request received for user: {}", username);
+        return githubService.getOwnedRepositories(username)
+                .contextWrite(context -> context.put(UpstreamExecutor.DEADLINE_CONTEXT_KEY, Instant.now().plus(peerTimeout)));
+    }
+
+    /**
+     * Evicts the cached listing of a username owned by this instance, after another peer received a webhook
+     * delivery for it, so that the next miss fetches the changes.
+     *
+     * @param username the username of the user whose listing is evicted
+     * @param secret the shared peer secret sent by the forwarding peer
+     * @throws InvalidPeerSecretException if the secret is missing or wrong
+     */
+    @DeleteMapping(PeerClient.PEER_REPOSITORIES_PATH)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void evictRepositories(@PathVariable String username,
+                                  @RequestHeader(name = PeerClient.PEER_SECRET_HEADER, required = false) String secret) {
+        if (!peerClient.isPeerSecret(secret)) {
+            throw new InvalidPeerSecretException();
+        }
+        logger.debug("Forwarded eviction received for user: {}", username);
+        repositoryCache.evict(username);
+    }
+}
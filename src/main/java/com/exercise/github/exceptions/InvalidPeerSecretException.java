@@ -0,0 +1,18 @@
+package com.exercise.github.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class InvalidPeerSecretException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public static final String INVALID_PEER_SECRET_ERROR_MESSAGE = "The peer secret is missing or invalid";
+
+    public InvalidPeerSecretException() {
+        super(INVALID_PEER_SECRET_ERROR_MESSAGE);
+    }
+}
@@ -0,0 +1,18 @@
+package com.exercise.github.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class InvalidWebhookSignatureException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public static final String INVALID_SIGNATURE_ERROR_MESSAGE = "The webhook signature is missing or invalid";
+
+    public InvalidWebhookSignatureException() {
+        super(INVALID_SIGNATURE_ERROR_MESSAGE);
+    }
+}
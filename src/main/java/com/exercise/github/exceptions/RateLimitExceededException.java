@@ -0,0 +1,25 @@
+package com.exercise.github.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+import java.time.Instant;
+
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RateLimitExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public static final String RATE_LIMIT_EXCEEDED_ERROR_MESSAGE = "The GitHub API rate limit is exhausted, please try again later";
+
+    // When the upstream budget is replenished, null if unknown
+    private final transient Instant resetAt;
+
+    public RateLimitExceededException(Instant resetAt) {
+        super(RATE_LIMIT_EXCEEDED_ERROR_MESSAGE);
+        this.resetAt = resetAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.exercise.github.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    public static final String TOO_MANY_REQUESTS_ERROR_MESSAGE = "Too many requests, please try again in %d seconds";
+
+    // How long the client should wait before retrying
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(long retryAfterSeconds) {
+        super(String.format(TOO_MANY_REQUESTS_ERROR_MESSAGE, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
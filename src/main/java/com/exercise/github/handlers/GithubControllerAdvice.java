@@ -1,14 +1,23 @@
 package com.exercise.github.handlers;
 
+import com.exercise.github.exceptions.InvalidPeerSecretException;
 import com.exercise.github.exceptions.InvalidUsernameException;
+import com.exercise.github.exceptions.InvalidWebhookSignatureException;
 import com.exercise.github.exceptions.models.ErrorResponse;
 import com.exercise.github.exceptions.GithubUserNotFoundException;
 import com.exercise.github.exceptions.MediaTypeNotSupportedException;
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.exceptions.TooManyRequestsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
+
 /**
  * A class containing exception handlers for errors that may occur during REST API requests.
  * The methods in this class handle exceptions and return a response with an appropriate HTTP status code and an error message.
@@ -44,6 +53,67 @@ public class GithubControllerAdvice {
         return new ErrorResponse(HttpStatus.NOT_ACCEPTABLE.value(), ex.getMessage());
     }
 
+    /**
+     * Handles the case where a webhook delivery is not signed with the configured secret,
+     * and returns an ErrorResponse with a 401 status code.
+     *
+     * @param ex the InvalidWebhookSignatureException that was thrown
+     * @return an ErrorResponse with a 401 status code and the message from the exception
+     */
+    @ExceptionHandler(InvalidWebhookSignatureException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ErrorResponse handleInvalidWebhookSignatureException(InvalidWebhookSignatureException ex) {
+        logger.warn("Invalid webhook signature"); // the payload is untrusted, do not log it
+        return new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
+    }
+
+    /**
+     * Handles the case where a call to the internal peer endpoint does not carry the shared peer secret,
+     * and returns an ErrorResponse with a 401 status code.
+     *
+     * @param ex the InvalidPeerSecretException that was thrown
+     * @return an ErrorResponse with a 401 status code and the message from the exception
+     */
+    @ExceptionHandler(InvalidPeerSecretException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public ErrorResponse handleInvalidPeerSecretException(InvalidPeerSecretException ex) {
+        logger.warn("Invalid peer secret"); // never log the sent secret
+        return new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
+    }
+
+    /**
+     * Handles the case where the shared GitHub rate-limit budget is exhausted, and returns an ErrorResponse with a
+     * 503 status code and a Retry-After header pointing at the end of the current rate-limit window.
+     *
+     * @param ex the RateLimitExceededException that was thrown
+     * @return an ErrorResponse with a 503 status code and the message from the exception
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        logger.warn("GitHub rate limit exhausted until {}", ex.getResetAt()); // expected under load, no stack trace
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (ex.getResetAt() != null) {
+            long seconds = Math.max(1, Duration.between(Instant.now(), ex.getResetAt()).toSeconds());
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        }
+        return response.body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    /**
+     * Handles the case where a client exceeds its request rate or has too much upstream work queued, and returns an
+     * ErrorResponse with a 429 status code and a Retry-After header.
+     *
+     * @param ex the TooManyRequestsException that was thrown
+     * @return an ErrorResponse with a 429 status code and the message from the exception
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        logger.debug("Request rejected by admission control: {}", ex.getMessage()); // abusive clients must not flood the log
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage()));
+    }
+
     /**
      * Exception handler that handles {@link IllegalArgumentException} and {@link InvalidUsernameException}
      * by returning a 400 Bad Request error with an error response body.
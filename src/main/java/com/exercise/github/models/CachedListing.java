@@ -0,0 +1,23 @@
+package com.exercise.github.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The cached non-fork repositories of one user, together with the `ETag` GitHub returned for the listing.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedListing {
+    private List<Repository> repositories;
+
+    // ETag of the upstream repository listing, null if unknown
+    private String etag;
+
+    // When the listing was fetched or last revalidated, in epoch milliseconds
+    private long storedAt;
+}
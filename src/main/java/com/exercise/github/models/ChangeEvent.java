@@ -0,0 +1,30 @@
+package com.exercise.github.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change between two polls of the repositories of a watched user, sent to change-feed subscribers.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+
+    /**
+     * The kinds of changes detected between two listings.
+     */
+    public enum Type {
+        REPOSITORY_ADDED, REPOSITORY_REMOVED, BRANCH_CREATED, BRANCH_DELETED, BRANCH_MOVED
+    }
+
+    private Type type;
+    private String owner;
+    private String repository;
+    private String branch; // Null for repository events
+    private String sha; // The new head of the branch, null for removals
+    private String previousSha; // The old head of a moved or deleted branch
+}
@@ -0,0 +1,21 @@
+package com.exercise.github.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Admission statistics of a single API client, identified by its API key or IP address.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClientUsage {
+    private String client; // API keys are masked
+    private double weight;
+    private double tokens; // Requests the client can still make without waiting
+    private long admitted;
+    private long rejected;
+    private int queued; // Upstream fetches waiting for a slot
+    private int running; // Upstream fetches in flight
+}
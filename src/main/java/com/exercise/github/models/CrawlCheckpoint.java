@@ -0,0 +1,30 @@
+package com.exercise.github.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The durable progress of a crawl. Everything before it is complete in the output; a resumed crawl truncates the
+ * current part to `partBytes` and continues at line `nextLine` of the input.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrawlCheckpoint {
+    // Absolute path of the login list
+    private String input;
+
+    // Zero-based index of the first input line not yet crawled
+    private long nextLine;
+
+    // Number of the part file being written
+    private int part;
+
+    // Length of the part file up to the last complete record
+    private long partBytes;
+
+    private long partRecords;
+    private long succeeded;
+    private long failed;
+}
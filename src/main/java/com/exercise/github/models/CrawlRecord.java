@@ -0,0 +1,28 @@
+package com.exercise.github.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of the output of a crawl: the non-fork repositories of one login, or why they could not be retrieved.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CrawlRecord {
+    private String login;
+
+    // When the repositories were retrieved, in epoch milliseconds
+    private long fetchedAt;
+
+    // Null if the retrieval failed
+    private List<Repository> repositories;
+
+    // Description of the failure, null if the retrieval succeeded
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.exercise.github.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * A timed operation of a sampled trace: an incoming request, or one of the upstream calls made for it.
+ * Identifiers follow the W3C trace context format.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Span {
+    private String traceId; // 32 hex digits
+    private String spanId; // 16 hex digits
+    private String parentSpanId; // Null for the root span of a trace started here
+    private String name;
+    private long startEpochMicros;
+    private long durationMicros; // 0 while the span is open
+    private Map<String, String> attributes;
+    private String error; // Null if the operation succeeded
+
+    @JsonIgnore
+    private long startNanos; // For the duration, from System.nanoTime()
+}
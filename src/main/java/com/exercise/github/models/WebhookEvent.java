@@ -0,0 +1,38 @@
+package com.exercise.github.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A GitHub webhook delivery reduced to the fields needed to update cached repositories and branches.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class WebhookEvent {
+
+    public enum Type { PUSH, CREATE, DELETE, REPOSITORY, FORK, PING }
+
+    private Type type;
+
+    // Value of the X-GitHub-Delivery header, unique per delivery and reused on redelivery
+    private String deliveryId;
+
+    private String owner;
+    private String repository;
+    private boolean fork;
+
+    // Branch name without the refs/heads/ prefix, null for tags
+    private String branch;
+
+    // Commit SHAs of a push, the all-zero SHA marks a created or deleted branch
+    private String before;
+    private String after;
+
+    // Action of a repository event, e.g. created, deleted or renamed
+    private String action;
+
+    // Former name of a renamed repository
+    private String previousName;
+}
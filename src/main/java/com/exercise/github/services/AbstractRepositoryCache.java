@@ -0,0 +1,125 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.CachedListing;
+import com.exercise.github.models.Repository;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Expiry and single-repository updates shared by the {@link RepositoryCache} backends, which only have to
+ * load, store and delete whole listings.
+ */
+public abstract class AbstractRepositoryCache implements RepositoryCache {
+
+    @Value("${github.cache.ttl:5m}")
+    protected Duration ttl = Duration.ofMinutes(5); // How long a listing is served before it is fetched again
+
+    @Value("${github.cache.stale-ttl:1h}")
+    protected Duration staleTtl = Duration.ofHours(1); // How long an expired listing is kept for revalidation
+
+    protected final Clock clock;
+
+    protected AbstractRepositoryCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return the listing stored under the key, if any
+     */
+    protected abstract Optional<CachedListing> load(String key);
+
+    /**
+     * Stores a listing under the key, to be retained for at least {@link #retention()}.
+     */
+    protected abstract void store(String key, CachedListing listing);
+
+    /**
+     * Deletes the listing stored under the key.
+     */
+    protected abstract void delete(String key);
+
+    /**
+     * Replaces the listing stored under the key with the result of the update, if a listing is stored.
+     */
+    protected abstract void update(String key, UnaryOperator<CachedListing> update);
+
+    @Override
+    public Optional<List<Repository>> get(String username) {
+        return load(key(username))
+                .filter(listing -> listing.getStoredAt() + ttl.toMillis() >= clock.millis())
+                .map(CachedListing::getRepositories);
+    }
+
+    @Override
+    public Optional<CachedListing> getForRevalidation(String username) {
+        return load(key(username))
+                .filter(listing -> listing.getStoredAt() + retention().toMillis() >= clock.millis());
+    }
+
+    @Override
+    public void put(String username, List<Repository> repositories, String etag) {
+        store(key(username), new CachedListing(List.copyOf(repositories), etag, clock.millis()));
+    }
+
+    @Override
+    public void evict(String username) {
+        delete(key(username));
+    }
+
+    @Override
+    public Optional<Repository> getRepository(String owner, String name) {
+        return load(key(owner)).flatMap(listing -> listing.getRepositories().stream()
+                .filter(repository -> repository.getName().equals(name))
+                .findFirst());
+    }
+
+    @Override
+    public void putRepository(String owner, Repository repository) {
+        update(key(owner), listing -> {
+            List<Repository> repositories = new ArrayList<>(listing.getRepositories());
+            int index = indexOf(repositories, repository.getName());
+            if (index >= 0) {
+                repositories.set(index, repository);
+            } else {
+                repositories.add(repository);
+            }
+            return new CachedListing(List.copyOf(repositories), listing.getEtag(), listing.getStoredAt());
+        });
+    }
+
+    @Override
+    public void removeRepository(String owner, String name) {
+        update(key(owner), listing -> {
+            List<Repository> repositories = new ArrayList<>(listing.getRepositories());
+            repositories.removeIf(repository -> repository.getName().equals(name));
+            return new CachedListing(List.copyOf(repositories), listing.getEtag(), listing.getStoredAt());
+        });
+    }
+
+    /**
+     * @return how long a listing is retained in total: fresh, then stale but revalidatable
+     */
+    protected Duration retention() {
+        return ttl.plus(staleTtl);
+    }
+
+    protected static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static int indexOf(List<Repository> repositories, String name) {
+        for (int i = 0; i < repositories.size(); i++) {
+            if (repositories.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.exercise.github.services;
+
+/**
+ * A concurrency limit that adapts to the latency and overload signals of the upstream, in the style of the gradient
+ * limiters of TCP Vegas.
+ * <p>
+ * Completed calls are sampled in windows of about one limit's worth of calls, roughly one round trip. At the end of
+ * each window the limit moves towards `limit * gradient + sqrt(limit)`, where the gradient is
+ * `tolerance * minRtt / rtt` clamped to [0.5, 1], `rtt` is the mean of the window and `minRtt` the lowest window
+ * mean: while the RTT stays within `tolerance` of the lowest one, the limit grows by about its square root per
+ * round trip, and once calls start queueing upstream it shrinks in proportion to the added latency. The limit only
+ * grows while at least half of it is in use, so an idle period does not inflate it.
+ * <p>
+ * Calls rejected for overload (403 secondary rate limits and 429s) cut the limit multiplicatively by
+ * `backoffRatio`, which together with the additive growth makes it AIMD under rate limiting.
+ * <p>
+ * The lowest RTT drifts with the upstream, so every `probeInterval` windows it is forgotten and measured again. If
+ * the limit was in use, it drops to its square root for one window so that the window measures the RTT without
+ * queueing, skipping the calls still in flight from before the drop, and is then put back. A limit that was mostly
+ * unused is not cut, since its calls do not queue anyway; otherwise quiet periods would ratchet it down to the
+ * minimum and throttle the next burst.
+ * Instances are thread-safe.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final int MIN_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+    private final double smoothing;
+    private final int probeInterval;
+
+    // Guarded by this
+    private double limit;
+    private double minRtt; // The lowest window mean since the last probe, in nanoseconds, 0 if unknown
+    private int windowsUntilProbe;
+    private int skipped; // Samples of calls started before the last probe, still to be ignored
+    private double probedLimit; // The limit before the probe in progress, 0 if none
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+
+    /**
+     * @param initialLimit the limit before the first window
+     * @param minLimit the lowest limit
+     * @param maxLimit the highest limit
+     * @param backoffRatio the factor applied to the limit on an overload signal, in (0, 1)
+     * @param tolerance how much the RTT may exceed the lowest RTT before the limit shrinks, at least 1
+     * @param smoothing the weight of each window's estimate in the limit, in (0, 1]
+     * @param probeInterval the number of windows after which the lowest RTT is measured again
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                    double tolerance, double smoothing, int probeInterval) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1 || tolerance < 1
+                || smoothing <= 0 || smoothing > 1 || probeInterval < 1) {
+            throw new IllegalArgumentException("Invalid adaptive concurrency limit settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.probeInterval = probeInterval;
+        this.limit = clamp(initialLimit);
+        this.windowsUntilProbe = probeInterval;
+    }
+
+    /**
+     * @return the number of calls currently allowed in flight
+     */
+    public synchronized int current() {
+        return (int) limit;
+    }
+
+    /**
+     * Records the round-trip time of a completed call, adjusting the limit when its window is full.
+     *
+     * @param rttNanos the round-trip time of the call
+     * @param inFlight the number of calls in flight when it completed, itself included
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (skipped > 0) {
+            skipped--;
+            return;
+        }
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (windowSamples < Math.max(MIN_WINDOW, (int) limit)) {
+            return;
+        }
+
+        double rtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+
+        if (probedLimit > 0) {
+            // The probe window ran at a reduced limit: it gives the unloaded RTT, not a gradient
+            minRtt = rtt;
+            limit = clamp(probedLimit);
+            probedLimit = 0;
+            return;
+        }
+        if (--windowsUntilProbe <= 0) {
+            windowsUntilProbe = probeInterval;
+            minRtt = 0;
+            if (maxInFlight >= limit / 2) {
+                probedLimit = limit;
+                skipped = maxInFlight;
+                limit = clamp(Math.sqrt(limit));
+            }
+            return;
+        }
+        if (minRtt == 0 || rtt < minRtt) {
+            minRtt = rtt;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * minRtt / rtt));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        if (estimate > limit && maxInFlight < limit / 2) {
+            return; // not using the limit, so the window says nothing about a higher one
+        }
+        limit = clamp(limit * (1 - smoothing) + estimate * smoothing);
+    }
+
+    /**
+     * Cuts the limit after the upstream rejected a call for overload.
+     */
+    public synchronized void onOverload() {
+        limit = clamp(limit * backoffRatio);
+        if (probedLimit > 0) {
+            probedLimit = clamp(probedLimit * backoffRatio);
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
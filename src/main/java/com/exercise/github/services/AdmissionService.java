@@ -0,0 +1,186 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.TooManyRequestsException;
+import com.exercise.github.models.ClientUsage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for API clients, identified by a configured API key or else by their IP address.
+ * <p>
+ * Every client has a token bucket holding up to `github.admission.burst` requests and refilled with
+ * `github.admission.rate` requests per second, both multiplied by the weight of its API key. Admitted requests
+ * then share `github.admission.max-concurrent` upstream slots through a {@link FairQueue}, so a client flooding
+ * the API with cache misses only delays its own requests. Enabled with `github.admission.enabled=true`.
+ */
+@Service
+@ConditionalOnProperty(name = "github.admission.enabled", havingValue = "true")
+public class AdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionService.class);
+    public static final String CLIENT_CONTEXT_KEY = "github.admission.client"; // Reactor context key of the client
+
+    @Value("${github.admission.rate:10}")
+    private double rate; // Requests per second per unit of weight
+
+    @Value("${github.admission.burst:20}")
+    private double burst; // Requests per unit of weight that can be made at once
+
+    @Value("${github.admission.api-keys:}")
+    private String[] apiKeys; // Entries of key:weight, or just key for weight 1
+
+    @Value("${github.admission.max-concurrent:64}")
+    private int maxConcurrent;
+
+    @Value("${github.admission.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${github.admission.max-clients:10000}")
+    private int maxClients; // Idle clients beyond this are forgotten
+
+    private final Map<String, Double> weights = new HashMap<>();
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private FairQueue fairQueue;
+
+    /**
+     * Parses the configured API keys and creates the fair queue.
+     */
+    @PostConstruct
+    public void start() {
+        for (String entry : apiKeys) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] keyAndWeight = entry.trim().split(":", 2);
+            weights.put(keyAndWeight[0], keyAndWeight.length == 2 ? Double.parseDouble(keyAndWeight[1]) : 1.0);
+        }
+        fairQueue = new FairQueue(maxConcurrent, queueCapacity);
+        logger.info("Admission control enabled with {} API keys", weights.size());
+    }
+
+    /**
+     * Identifies the client of a request. Unknown API keys are ignored, so that clients cannot escape their limit by
+     * sending a new key with every request.
+     *
+     * @param apiKey the API key sent by the client, or null
+     * @param remoteAddress the IP address of the client
+     * @return the client id
+     */
+    public String resolveClient(String apiKey, String remoteAddress) {
+        return apiKey != null && weights.containsKey(apiKey) ? "key:" + apiKey : "ip:" + remoteAddress;
+    }
+
+    /**
+     * Takes one request from the token bucket of the client.
+     *
+     * @param clientId the client id returned by {@link #resolveClient(String, String)}
+     * @throws TooManyRequestsException if the bucket is empty, with the time until the next token
+     */
+    public void admit(String clientId) {
+        Client client = clients.computeIfAbsent(clientId, id -> new Client(weight(id)));
+        long waitNanos = client.tryTake(rate, burst);
+        if (waitNanos > 0) {
+            client.rejected.increment();
+            throw new TooManyRequestsException(Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L));
+        }
+        client.admitted.increment();
+        if (clients.size() > maxClients) {
+            forgetIdleClients();
+        }
+    }
+
+    /**
+     * Runs upstream work in the fair queue slot of the client named in the Reactor context.
+     * Work without a client, like webhook refreshes and requests forwarded by peers, is not queued.
+     *
+     * @param work the upstream work
+     * @return a Mono of the result of the work, failing with {@link TooManyRequestsException} if the client already
+     * has too much work queued
+     */
+    public <T> Mono<T> schedule(Mono<T> work) {
+        return Mono.deferContextual(context -> context.<String>getOrEmpty(CLIENT_CONTEXT_KEY)
+                .map(client -> fairQueue.schedule(client, weight(client), work))
+                .orElse(work));
+    }
+
+    /**
+     * @return the usage of every known client, most active first
+     */
+    public List<ClientUsage> usage() {
+        return clients.entrySet().stream()
+                .map(entry -> new ClientUsage(mask(entry.getKey()), entry.getValue().weight,
+                        entry.getValue().tokens(rate, burst), entry.getValue().admitted.sum(),
+                        entry.getValue().rejected.sum(), fairQueue.queued(entry.getKey()),
+                        fairQueue.running(entry.getKey())))
+                .sorted(Comparator.comparingLong((ClientUsage usage) -> usage.getAdmitted() + usage.getRejected()).reversed())
+                .toList();
+    }
+
+    private double weight(String clientId) {
+        return clientId.startsWith("key:") ? weights.getOrDefault(clientId.substring(4), 1.0) : 1.0;
+    }
+
+    private void forgetIdleClients() {
+        clients.entrySet().removeIf(entry -> entry.getValue().tokens(rate, burst) >= burst * entry.getValue().weight
+                && fairQueue.queued(entry.getKey()) == 0 && fairQueue.running(entry.getKey()) == 0);
+    }
+
+    private static String mask(String clientId) {
+        if (!clientId.startsWith("key:")) {
+            return clientId;
+        }
+        String key = clientId.substring(4);
+        return "key:" + key.substring(0, Math.min(4, key.length())) + "****";
+    }
+
+    /**
+     * The token bucket and counters of a single client.
+     */
+    private static final class Client {
+        private final double weight;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private double tokens = -1; // Full on first use
+        private long refilledAt = System.nanoTime();
+
+        private Client(double weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next token
+         */
+        private synchronized long tryTake(double rate, double burst) {
+            refill(rate, burst);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - tokens) / (rate * weight) * 1_000_000_000L);
+        }
+
+        private synchronized double tokens(double rate, double burst) {
+            refill(rate, burst);
+            return tokens;
+        }
+
+        private void refill(double rate, double burst) {
+            long now = System.nanoTime();
+            double capacity = burst * weight;
+            tokens = tokens < 0 ? capacity : Math.min(capacity, tokens + (now - refilledAt) / 1e9 * rate * weight);
+            refilledAt = now;
+        }
+    }
+}
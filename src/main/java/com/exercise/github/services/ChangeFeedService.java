@@ -0,0 +1,266 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.exceptions.TooManyRequestsException;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.CachedListing;
+import com.exercise.github.models.ChangeEvent;
+import com.exercise.github.models.Repository;
+import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Streams changes to the repositories and branches of watched users to change-feed subscribers.
+ * <p>
+ * Each watched user has exactly one poller, shared by all of its subscribers and stopped when the last one leaves.
+ * The poller revalidates the listing every `github.feed.poll-interval` with a conditional request, in the background
+ * upstream lane, and turns every changed listing into {@link ChangeEvent}s by diffing it against the previous one.
+ * Unchanged listings cost a 304 and no rate limit.
+ * <p>
+ * Every subscriber has its own buffer of `github.feed.subscriber-buffer` events. A subscriber whose buffer overflows
+ * is evicted: its stream completes, so a stuck client cannot hold events for ever and can resubscribe once it
+ * catches up.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    @Value("${github.feed.poll-interval:30s}")
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    @Value("${github.feed.subscriber-buffer:256}")
+    private int subscriberBuffer = 256; // Events buffered for a slow subscriber before it is evicted
+
+    @Value("${github.feed.max-users:1000}")
+    private int maxUsers = 1000; // Users watched at once, each costing one poll per interval
+
+    private final GithubService githubService;
+    private final RepositoryCache repositoryCache;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, UserFeed> feeds = new ConcurrentHashMap<>();
+    private Scheduler pollScheduler = Schedulers.parallel(); // Times the poll ticks
+    private Counter evictions;
+
+    /**
+     * Registers the change-feed metrics.
+     */
+    @PostConstruct
+    public void start() {
+        evictions = meterRegistry.counter("github.feed.evicted");
+        Gauge.builder("github.feed.watched", feeds, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Stops all pollers.
+     */
+    @PreDestroy
+    public void stop() {
+        feeds.values().forEach(UserFeed::stop);
+        feeds.clear();
+    }
+
+    /**
+     * Subscribes to the changes of the repositories of a given user, starting its poller if it is not watched yet.
+     *
+     * @param username the GitHub username of the user to watch
+     * @return a Flux of changes, failing with {@link GithubUserNotFoundException} if the user does not exist and
+     * completing if the subscriber is evicted
+     * @throws IllegalArgumentException if the provided username is null or empty
+     * @throws TooManyRequestsException if `github.feed.max-users` users are already watched
+     */
+    public Flux<ChangeEvent> subscribe(String username) {
+        if (StringUtils.isBlank(username)) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+        String key = username.toLowerCase(Locale.ROOT);
+        if (!feeds.containsKey(key) && feeds.size() >= maxUsers) {
+            throw new TooManyRequestsException(pollInterval.toSeconds());
+        }
+
+        return Flux.defer(() -> {
+            UserFeed feed = join(key, username);
+            Sinks.Empty<Void> evicted = Sinks.empty();
+            return feed.events.asFlux()
+                    .onBackpressureBuffer(subscriberBuffer, dropped -> evict(username, evicted), BufferOverflowStrategy.DROP_LATEST)
+                    .takeUntilOther(evicted.asMono())
+                    .doFinally(signal -> leave(key, feed));
+        });
+    }
+
+    /**
+     * @return the number of users currently watched
+     */
+    public int watchedUsers() {
+        return feeds.size();
+    }
+
+    /**
+     * Computes the changes between two listings of the same user.
+     *
+     * @param previous the previous listing
+     * @param current the current listing
+     * @return the changes, repository by repository
+     */
+    public static List<ChangeEvent> diff(List<Repository> previous, List<Repository> current) {
+        Map<String, Repository> before = byName(previous);
+        Map<String, Repository> after = byName(current);
+        List<ChangeEvent> events = new ArrayList<>();
+
+        for (Repository repository : after.values()) {
+            Repository old = before.get(repository.getName());
+            if (old == null) {
+                events.add(new ChangeEvent(ChangeEvent.Type.REPOSITORY_ADDED, repository.getOwner(), repository.getName(), null, null, null));
+            }
+            Map<String, String> oldHeads = old == null ? Map.of() : heads(old);
+            Map<String, String> newHeads = heads(repository);
+            newHeads.forEach((branch, sha) -> {
+                String oldSha = oldHeads.get(branch);
+                if (oldSha == null) {
+                    events.add(new ChangeEvent(ChangeEvent.Type.BRANCH_CREATED, repository.getOwner(), repository.getName(), branch, sha, null));
+                } else if (!oldSha.equals(sha)) {
+                    events.add(new ChangeEvent(ChangeEvent.Type.BRANCH_MOVED, repository.getOwner(), repository.getName(), branch, sha, oldSha));
+                }
+            });
+            oldHeads.forEach((branch, sha) -> {
+                if (!newHeads.containsKey(branch)) {
+                    events.add(new ChangeEvent(ChangeEvent.Type.BRANCH_DELETED, repository.getOwner(), repository.getName(), branch, null, sha));
+                }
+            });
+        }
+        for (Repository repository : before.values()) {
+            if (!after.containsKey(repository.getName())) {
+                events.add(new ChangeEvent(ChangeEvent.Type.REPOSITORY_REMOVED, repository.getOwner(), repository.getName(), null, null, null));
+            }
+        }
+        return events;
+    }
+
+    private UserFeed join(String key, String username) {
+        UserFeed feed = feeds.compute(key, (ignored, existing) -> {
+            UserFeed joined = existing != null ? existing : new UserFeed(username);
+            joined.subscribers++;
+            return joined;
+        });
+        feed.startOnce();
+        return feed;
+    }
+
+    private void leave(String key, UserFeed feed) {
+        feeds.computeIfPresent(key, (ignored, existing) -> {
+            if (existing != feed || --existing.subscribers > 0) {
+                return existing;
+            }
+            existing.stop();
+            return null;
+        });
+    }
+
+    private void evict(String username, Sinks.Empty<Void> evicted) {
+        evictions.increment();
+        logger.warn("Evicting slow change-feed subscriber of user: {}", username);
+        evicted.tryEmitEmpty(); // completes the subscriber and cancels its buffer, so nothing else is dropped
+    }
+
+    private static Map<String, Repository> byName(List<Repository> repositories) {
+        return repositories.stream()
+                .collect(Collectors.toMap(Repository::getName, repository -> repository, (first, second) -> first, LinkedHashMap::new));
+    }
+
+    private static Map<String, String> heads(Repository repository) {
+        return repository.getBranches().stream()
+                .collect(Collectors.toMap(Branch::getName, branch -> branch.getCommit().getSha(), (first, second) -> first, LinkedHashMap::new));
+    }
+
+    /**
+     * The shared poller of one watched user. Its events sink and snapshot are only touched by the poll loop, which
+     * runs one poll at a time.
+     */
+    private final class UserFeed {
+        private final String username;
+        private final Sinks.Many<ChangeEvent> events = Sinks.many().multicast().directBestEffort();
+        private int subscribers; // Guarded by the feeds map
+        private List<Repository> snapshot;
+        private String etag;
+        private Disposable poller;
+
+        private UserFeed(String username) {
+            this.username = username;
+        }
+
+        private synchronized void startOnce() {
+            if (poller != null) {
+                return;
+            }
+            // A retained listing seeds the first poll, which then costs a 304 if nothing changed
+            Optional<CachedListing> cached = repositoryCache.getForRevalidation(username)
+                    .filter(listing -> listing.getEtag() != null);
+            cached.ifPresent(listing -> {
+                snapshot = listing.getRepositories();
+                etag = listing.getEtag();
+            });
+            logger.info("Watching repositories of user: {}", username);
+            poller = Flux.interval(Duration.ZERO, pollInterval, pollScheduler)
+                    .onBackpressureDrop() // skip ticks while a slow poll is running
+                    .concatMap(tick -> poll(), 1)
+                    .contextWrite(Context.of(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.BACKGROUND))
+                    .subscribe();
+        }
+
+        private Mono<Void> poll() {
+            return githubService.pollRepositories(username, etag)
+                    .doOnNext(listing -> {
+                        if (snapshot != null) {
+                            diff(snapshot, listing.getRepositories()).forEach(events::tryEmitNext);
+                        }
+                        snapshot = listing.getRepositories();
+                        etag = listing.getEtag();
+                    })
+                    .then()
+                    .onErrorResume(GithubUserNotFoundException.class, ex -> {
+                        events.tryEmitError(ex);
+                        return Mono.empty();
+                    })
+                    .onErrorResume(ex -> {
+                        logger.warn("Polling repositories of user {} failed", username, ex);
+                        return Mono.empty();
+                    });
+        }
+
+        private synchronized void stop() {
+            logger.info("No subscribers left, unwatching user: {}", username);
+            if (poller != null) {
+                poller.dispose();
+            }
+        }
+    }
+}
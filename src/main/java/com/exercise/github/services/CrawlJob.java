@@ -0,0 +1,233 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.models.CrawlCheckpoint;
+import com.exercise.github.models.CrawlRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Crawls the non-fork repositories and branches of every login in a list, one login per line, and writes them with
+ * a {@link CrawlWriter} to rotating gzip-compressed NDJSON parts in `github.crawl.output`.
+ * <p>
+ * Enabled by setting `github.crawl.input`; the application then runs the crawl at startup and exits once it ends.
+ * Up to `github.crawl.concurrency` logins are fetched at once straight from GitHub, bypassing the repository cache
+ * and the sharing of fetches between API requests, in the background upstream lane so that API requests served by
+ * the same instance go first. Records are written in input
+ * order and checkpointed every `github.crawl.checkpoint-interval`, so a crawl that is killed resumes after the last
+ * checkpointed login when started again with the same input and output. When the rate-limit budget is exhausted,
+ * fetches wait for the window to reset instead of failing; other failures are retried `github.crawl.retries` times
+ * and then recorded in the output. Throughput and ETA are logged every `github.crawl.progress-interval`.
+ */
+@Component
+@ConditionalOnProperty(name = "github.crawl.input")
+@RequiredArgsConstructor
+public class CrawlJob implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlJob.class);
+    private static final Duration UNKNOWN_RESET_WAIT = Duration.ofMinutes(1);
+
+    @Value("${github.crawl.input}")
+    private Path input; // One login per line; blank lines and lines starting with # are skipped
+
+    @Value("${github.crawl.output:crawl}")
+    private Path output = Path.of("crawl"); // Directory of the parts and the checkpoint
+
+    @Value("${github.crawl.concurrency:8}")
+    private int concurrency = 8; // Logins fetched at once
+
+    @Value("${github.crawl.records-per-file:10000}")
+    private int recordsPerFile = 10_000;
+
+    @Value("${github.crawl.checkpoint-interval:30s}")
+    private Duration checkpointInterval = Duration.ofSeconds(30); // Upper bound on the work repeated after a kill
+
+    @Value("${github.crawl.progress-interval:30s}")
+    private Duration progressInterval = Duration.ofSeconds(30);
+
+    @Value("${github.crawl.retries:3}")
+    private int retries = 3; // Retries of a failed login, rate-limit waits excluded
+
+    @Value("${github.crawl.retry-backoff:2s}")
+    private Duration retryBackoff = Duration.ofSeconds(2);
+
+    @Value("${github.crawl.exit:true}")
+    private boolean exit = true; // Stop the application once the crawl ends
+
+    private final GithubService githubService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int status = 0;
+        try {
+            crawl();
+        } catch (Exception ex) {
+            logger.error("Crawl of {} failed, run it again to resume from the last checkpoint", input, ex);
+            status = 1;
+        }
+        if (exit) {
+            int exitCode = status;
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+    }
+
+    /**
+     * Crawls the logins after the checkpoint of the output directory, or all of them for a new output directory.
+     *
+     * @return the final checkpoint
+     */
+    public CrawlCheckpoint crawl() throws IOException {
+        long total;
+        try (Stream<String> lines = Files.lines(input)) {
+            total = lines.filter(CrawlJob::isLogin).count();
+        }
+
+        try (CrawlWriter writer = new CrawlWriter(output, objectMapper, recordsPerFile)) {
+            CrawlCheckpoint start = writer.open(input);
+            Progress progress = new Progress(total, start.getSucceeded() + start.getFailed());
+            if (start.getNextLine() > 0) {
+                logger.info("Resuming crawl of {} at line {}, {} of {} logins done", input, start.getNextLine(),
+                        progress.doneBefore, total);
+            } else {
+                logger.info("Crawling {} logins from {} into {}", total, input, output);
+            }
+
+            Disposable reporter = Flux.interval(progressInterval, progressInterval).subscribe(tick -> progress.report());
+            long lastCheckpoint = System.nanoTime();
+            try (Stream<String> lines = Files.lines(input)) {
+                Flux<Tuple2<Long, CrawlRecord>> records = Flux.fromStream(lines)
+                        .index()
+                        .skip(start.getNextLine())
+                        .filter(line -> isLogin(line.getT2()))
+                        .flatMapSequential(line -> fetch(line.getT2().trim())
+                                .map(record -> Tuples.of(line.getT1(), record)), concurrency)
+                        .contextWrite(Context.of(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.BACKGROUND));
+
+                // Records are written on this thread, off the event loops, in input order
+                for (Tuple2<Long, CrawlRecord> record : records.toIterable(concurrency)) {
+                    writer.write(record.getT1(), record.getT2());
+                    progress.done.incrementAndGet();
+                    if (record.getT2().getError() != null) {
+                        progress.failed.incrementAndGet();
+                    }
+                    if (System.nanoTime() - lastCheckpoint >= checkpointInterval.toNanos()) {
+                        writer.checkpoint();
+                        lastCheckpoint = System.nanoTime();
+                    }
+                }
+                writer.checkpoint();
+            } finally {
+                reporter.dispose();
+            }
+
+            CrawlCheckpoint end = writer.progress();
+            progress.report();
+            logger.info("Crawl of {} complete: {} logins succeeded, {} failed, written to {}", input,
+                    end.getSucceeded(), end.getFailed(), output);
+            return end;
+        }
+    }
+
+    /**
+     * Fetches one login, waiting out an exhausted rate-limit budget and retrying other failures.
+     *
+     * @param login the login
+     * @return a Mono of the record of the login, never failing
+     */
+    private Mono<CrawlRecord> fetch(String login) {
+        return Mono.defer(() -> githubService.fetchUncachedRepositories(login))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> untilReset(signal.failure()))))
+                .retryWhen(Retry.backoff(retries, retryBackoff)
+                        .filter(ex -> !(ex instanceof GithubUserNotFoundException)))
+                .map(repositories -> new CrawlRecord(login, System.currentTimeMillis(), repositories, null))
+                .onErrorResume(ex -> {
+                    Throwable cause = Exceptions.isRetryExhausted(ex) ? ex.getCause() : ex;
+                    logger.warn("Failed to crawl login: {}", login, cause);
+                    return Mono.just(new CrawlRecord(login, System.currentTimeMillis(), null, describe(cause)));
+                });
+    }
+
+    /**
+     * @return a Mono completing when the rate-limit window resets, or failing with the error if it is not a
+     * rate-limit error
+     */
+    private Mono<Long> untilReset(Throwable ex) {
+        if (!(ex instanceof RateLimitExceededException rateLimited)) {
+            return Mono.error(ex);
+        }
+        Duration wait = rateLimited.getResetAt() == null ? UNKNOWN_RESET_WAIT
+                : Duration.between(Instant.now(), rateLimited.getResetAt()).plusSeconds(1);
+        if (wait.isNegative()) {
+            wait = Duration.ofSeconds(1);
+        }
+        logger.info("Rate-limit budget exhausted, pausing for {} s", wait.toSeconds());
+        return Mono.delay(wait);
+    }
+
+    private static boolean isLogin(String line) {
+        String login = line.trim();
+        return !login.isEmpty() && !login.startsWith("#");
+    }
+
+    private static String describe(Throwable ex) {
+        return ex.getClass().getSimpleName() + (ex.getMessage() == null ? "" : ": " + ex.getMessage());
+    }
+
+    /**
+     * The progress of this run, for the throughput and ETA in the log.
+     */
+    private static final class Progress {
+        private final long total;
+        private final long doneBefore; // Logins done by earlier runs
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private Progress(long total, long doneBefore) {
+            this.total = total;
+            this.doneBefore = doneBefore;
+        }
+
+        private void report() {
+            long crawled = doneBefore + done.get();
+            double seconds = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+            double rate = done.get() / seconds;
+            long remaining = Math.max(0, total - crawled);
+            String eta = rate > 0 ? format(Duration.ofSeconds((long) Math.ceil(remaining / rate))) : "unknown";
+            logger.info("Crawled {}/{} logins ({}%), {} logins/s, {} failed, ETA {}", crawled, total,
+                    total == 0 ? 100 : crawled * 100 / total, String.format("%.1f", rate), failed.get(), eta);
+        }
+
+        private static String format(Duration duration) {
+            return String.format("%dh%02dm%02ds", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.CrawlCheckpoint;
+import com.exercise.github.models.CrawlRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the records of a crawl as gzip-compressed NDJSON to numbered part files in an output directory, together
+ * with a `checkpoint.json` recording how far the output is complete.
+ * <p>
+ * Each checkpoint ends the gzip member being written, so a part file is a concatenation of complete members up to
+ * the checkpointed length, which any gzip reader reads as one stream. Reopening the directory truncates the current
+ * part back to that length, dropping the records written after the last checkpoint, and the crawl continues from
+ * the input line after the last checkpointed record. A part is closed and the next one started after
+ * `recordsPerFile` records.
+ * <p>
+ * Not thread-safe: one thread writes all records.
+ */
+public class CrawlWriter implements Closeable {
+
+    public static final String CHECKPOINT_FILE = "checkpoint.json";
+    private static final Pattern PART = Pattern.compile("part-(\\d{5})\\.ndjson\\.gz");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int recordsPerFile;
+
+    private CrawlCheckpoint progress; // As of the last record written, partBytes as of the last checkpoint
+    private FileChannel channel;
+    private OutputStream member; // The gzip member being written, null between checkpoints without records
+
+    public CrawlWriter(Path directory, ObjectMapper objectMapper, int recordsPerFile) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.recordsPerFile = recordsPerFile;
+    }
+
+    /**
+     * Opens the output directory, resuming from its checkpoint if it has one.
+     *
+     * @param input the login list being crawled
+     * @return the checkpoint to resume from, at line 0 for a new crawl
+     * @throws IllegalStateException if the directory holds the output of another login list, or parts without a
+     * checkpoint
+     */
+    public CrawlCheckpoint open(Path input) throws IOException {
+        Files.createDirectories(directory);
+        String inputPath = input.toAbsolutePath().normalize().toString();
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            progress = objectMapper.readValue(checkpointFile.toFile(), CrawlCheckpoint.class);
+            if (!progress.getInput().equals(inputPath)) {
+                throw new IllegalStateException("Output directory " + directory + " holds a crawl of " + progress.getInput());
+            }
+        } else {
+            if (!parts().isEmpty()) {
+                throw new IllegalStateException("Output directory " + directory + " holds parts but no checkpoint");
+            }
+            progress = new CrawlCheckpoint(inputPath, 0, 0, 0, 0, 0, 0);
+            saveCheckpoint(); // so that a crawl killed before its first checkpoint resumes too
+        }
+
+        // Parts started after the checkpoint, by a rotation that did not complete, are written again
+        for (Path part : parts()) {
+            if (partNumber(part) > progress.getPart()) {
+                Files.delete(part);
+            }
+        }
+        Path current = part(progress.getPart());
+        if (progress.getPartBytes() == 0) {
+            Files.deleteIfExists(current);
+        } else {
+            try (FileChannel file = FileChannel.open(current, StandardOpenOption.WRITE)) {
+                file.truncate(progress.getPartBytes());
+            }
+        }
+        return copy(progress);
+    }
+
+    /**
+     * Appends a record, starting the next part once the current one is full.
+     *
+     * @param line the zero-based index of the input line of the record
+     * @param record the record
+     */
+    public void write(long line, CrawlRecord record) throws IOException {
+        if (channel == null) {
+            // Parts are created with their first record, so that every part holds at least one gzip member
+            channel = FileChannel.open(part(progress.getPart()), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        if (member == null) {
+            member = new GZIPOutputStream(new MemberStream(Channels.newOutputStream(channel)), GZIP_BUFFER_SIZE);
+        }
+        member.write(objectMapper.writeValueAsBytes(record));
+        member.write('\n');
+
+        progress.setNextLine(line + 1);
+        progress.setPartRecords(progress.getPartRecords() + 1);
+        if (record.getError() == null) {
+            progress.setSucceeded(progress.getSucceeded() + 1);
+        } else {
+            progress.setFailed(progress.getFailed() + 1);
+        }
+        if (progress.getPartRecords() >= recordsPerFile) {
+            rotate();
+        }
+    }
+
+    /**
+     * Makes every record written so far durable and records the progress in the checkpoint.
+     */
+    public void checkpoint() throws IOException {
+        endMember();
+        if (channel != null) {
+            channel.force(false);
+            progress.setPartBytes(channel.size());
+        }
+        saveCheckpoint();
+    }
+
+    /**
+     * @return the progress as of the last record written
+     */
+    public CrawlCheckpoint progress() {
+        return copy(progress);
+    }
+
+    /**
+     * @return the path of a part file
+     */
+    public Path part(int part) {
+        return directory.resolve(String.format("part-%05d.ndjson.gz", part));
+    }
+
+    /**
+     * Closes the current part without a checkpoint; records written since the last checkpoint are dropped when the
+     * directory is reopened.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void rotate() throws IOException {
+        endMember();
+        channel.force(false);
+        channel.close();
+        channel = null;
+        progress.setPart(progress.getPart() + 1);
+        progress.setPartBytes(0);
+        progress.setPartRecords(0);
+        saveCheckpoint();
+    }
+
+    private void endMember() throws IOException {
+        if (member != null) {
+            member.close(); // writes the gzip trailer, leaving the channel open
+            member = null;
+        }
+    }
+
+    private void saveCheckpoint() throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            file.write(ByteBuffer.wrap(objectMapper.writeValueAsBytes(progress)));
+            file.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Path> parts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> PART.matcher(file.getFileName().toString()).matches()).toList();
+        }
+    }
+
+    private static int partNumber(Path part) {
+        Matcher matcher = PART.matcher(part.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private static CrawlCheckpoint copy(CrawlCheckpoint checkpoint) {
+        return new CrawlCheckpoint(checkpoint.getInput(), checkpoint.getNextLine(), checkpoint.getPart(),
+                checkpoint.getPartBytes(), checkpoint.getPartRecords(), checkpoint.getSucceeded(), checkpoint.getFailed());
+    }
+
+    /**
+     * Keeps the part open when a gzip member is closed.
+     */
+    private static final class MemberStream extends FilterOutputStream {
+        private MemberStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.TooManyRequestsException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A weighted fair queue bounding how many units of upstream work run at once.
+ * <p>
+ * Work is queued per client and dispatched by start-time fair queuing: every unit is tagged with a virtual start
+ * time of max(current virtual time, finish time of the client's previous unit) and finishes `1 / weight` later,
+ * and free slots always go to the smallest start tag. A client with weight 2 therefore gets twice the slots of a
+ * client with weight 1 while both are backlogged, and a client that just arrived is served next instead of behind
+ * the whole backlog of a heavy client.
+ */
+public class FairQueue {
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+
+    // Guarded by this
+    private final Map<String, Flow> flows = new HashMap<>();
+    private double virtualTime;
+    private int running;
+
+    /**
+     * @param maxConcurrent how many units of work run at once, across all clients
+     * @param queueCapacity how many units of work a single client may have waiting
+     */
+    public FairQueue(int maxConcurrent, int queueCapacity) {
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Subscribes to the work once the client is granted a slot, and frees the slot when the work terminates or is
+     * cancelled. Cancelling while queued removes the work from the queue.
+     *
+     * @param client the client the work is done for
+     * @param weight the share of the client relative to the others
+     * @param work the work to run
+     * @return a Mono of the result of the work, failing with {@link TooManyRequestsException} if the queue of the
+     * client is full
+     */
+    public <T> Mono<T> schedule(String client, double weight, Mono<T> work) {
+        return Mono.usingWhen(acquire(client, weight), ticket -> work,
+                ticket -> Mono.fromRunnable(ticket::release),
+                (ticket, ex) -> Mono.fromRunnable(ticket::release),
+                ticket -> Mono.fromRunnable(ticket::release));
+    }
+
+    /**
+     * @return the number of queued units of work of the client
+     */
+    public synchronized int queued(String client) {
+        Flow flow = flows.get(client);
+        return flow == null ? 0 : flow.queue.size();
+    }
+
+    /**
+     * @return the number of running units of work of the client
+     */
+    public synchronized int running(String client) {
+        Flow flow = flows.get(client);
+        return flow == null ? 0 : flow.running;
+    }
+
+    private Mono<Ticket> acquire(String client, double weight) {
+        return Mono.create(sink -> {
+            Ticket ticket;
+            synchronized (this) {
+                Flow flow = flows.computeIfAbsent(client, ignored -> new Flow());
+                if (flow.queue.size() >= queueCapacity) {
+                    sink.error(new TooManyRequestsException(1));
+                    return;
+                }
+                double start = Math.max(virtualTime, flow.lastFinish);
+                flow.lastFinish = start + 1 / weight;
+                ticket = new Ticket(flow, start, sink);
+                flow.queue.add(ticket);
+            }
+            sink.onCancel(ticket::cancel);
+            dispatch();
+        });
+    }
+
+    /**
+     * Grants free slots to the queued work with the smallest start tags. The sinks are completed outside the lock,
+     * since completing them runs the work.
+     */
+    private void dispatch() {
+        List<Ticket> granted = new ArrayList<>();
+        synchronized (this) {
+            while (running < maxConcurrent) {
+                Ticket next = null;
+                for (Flow flow : flows.values()) {
+                    Ticket head = flow.queue.peek();
+                    if (head != null && (next == null || head.start < next.start)) {
+                        next = head;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                next.flow.queue.poll();
+                next.state = State.RUNNING;
+                next.flow.running++;
+                running++;
+                virtualTime = next.start;
+                granted.add(next);
+            }
+            // Idle clients that are not ahead of the virtual time would start at the virtual time anyway
+            flows.values().removeIf(flow -> flow.queue.isEmpty() && flow.running == 0 && flow.lastFinish <= virtualTime);
+        }
+        granted.forEach(ticket -> ticket.sink.success(ticket));
+    }
+
+    private enum State {
+        QUEUED, RUNNING, DONE
+    }
+
+    private static final class Flow {
+        private final Deque<Ticket> queue = new ArrayDeque<>();
+        private double lastFinish;
+        private int running;
+    }
+
+    private final class Ticket {
+        private final Flow flow;
+        private final double start;
+        private final MonoSink<Ticket> sink;
+        private State state = State.QUEUED;
+
+        private Ticket(Flow flow, double start, MonoSink<Ticket> sink) {
+            this.flow = flow;
+            this.start = start;
+            this.sink = sink;
+        }
+
+        private void cancel() {
+            synchronized (FairQueue.this) {
+                if (state == State.QUEUED) {
+                    flow.queue.remove(this);
+                    state = State.DONE;
+                    return;
+                }
+            }
+            release(); // granted just before the cancellation, hand the slot on
+        }
+
+        private void release() {
+            synchronized (FairQueue.this) {
+                if (state != State.RUNNING) {
+                    return;
+                }
+                state = State.DONE;
+                flow.running--;
+                running--;
+            }
+            dispatch();
+        }
+    }
+}
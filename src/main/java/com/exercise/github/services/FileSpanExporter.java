@@ -0,0 +1,79 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Span;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A {@link SpanExporter} appending every span as one JSON line to the file at `github.tracing.file.path`.
+ * Each batch is flushed once written.
+ */
+@Component
+@ConditionalOnProperty(name = "github.tracing.exporter", havingValue = "file")
+@RequiredArgsConstructor
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    @Value("${github.tracing.file.path:traces.ndjson}")
+    private Path path;
+
+    private final ObjectMapper objectMapper;
+    private BufferedWriter writer;
+
+    /**
+     * Opens the file for appending, creating it and its directory if needed.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            logger.info("Exporting spans to: {}", path.toAbsolutePath()); // Log the file
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open span file " + path, ex);
+        }
+    }
+
+    /**
+     * Closes the file.
+     */
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Override
+    public synchronized void export(List<Span> spans) {
+        try {
+            for (Span span : spans) {
+                writer.write(objectMapper.writeValueAsString(span));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            logger.warn("Failed to write {} spans to {}", spans.size(), path, ex);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Branch;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the branch heads of a repository from its git smart-HTTP ref advertisement, selected with
+ * `github.branches.source=git`.
+ * <p>
+ * One `info/refs?service=git-upload-pack` request returns every `refs/heads/*` name and SHA, where the REST
+ * branches API needs a page per 30 branches. The request goes to `github.git.base.url` rather than the REST API,
+ * so it is not charged against the REST rate-limit budget. The response is parsed as it streams in by a
+ * {@link PktLineParser}, which reads the network buffers in place.
+ * Only public repositories can be read this way, since the request is anonymous.
+ */
+@Component
+@ConditionalOnProperty(name = "github.branches.source", havingValue = "git")
+public class GitBranchSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitBranchSource.class);
+    private static final String ADVERTISEMENT_MEDIA_TYPE = "application/x-git-upload-pack-advertisement";
+
+    @Value("${github.git.base.url:https://github.com}")
+    private String gitBaseUrl; // The base URL of the git smart-HTTP endpoints
+
+    @Value("${github.git.info-refs.uri:/{owner}/{repo}.git/info/refs?service=git-upload-pack}")
+    private String infoRefsUri;
+
+    private final WebClient.Builder builder;
+    private WebClient gitWebClient;
+
+    public GitBranchSource(WebClient.Builder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Creates the client for the git endpoints.
+     */
+    @PostConstruct
+    public void start() {
+        logger.info("Reading branches from git ref advertisements at: {}", gitBaseUrl); // Log the base URL
+        // A separate client, git calls are not charged against the REST rate-limit budget
+        this.gitWebClient = builder.clone().baseUrl(gitBaseUrl).build();
+    }
+
+    /**
+     * Retrieves the branches of a given repository from its ref advertisement.
+     *
+     * @param owner the owner of the repository
+     * @param repo the name of the repository
+     * @return a Flux of the branches, failing if the repository cannot be read or the advertisement is malformed
+     */
+    public Flux<Branch> getBranches(String owner, String repo) {
+        return Flux.defer(() -> {
+            PktLineParser parser = new PktLineParser();
+            Flux<Branch> branches = gitWebClient.get()
+                    .uri(infoRefsUri, owner, repo)
+                    .header(HttpHeaders.ACCEPT, ADVERTISEMENT_MEDIA_TYPE)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .concatMapIterable(buffer -> parse(parser, buffer));
+            return branches.concatWith(Mono.fromRunnable(parser::finish));
+        });
+    }
+
+    /**
+     * Feeds the readable bytes of a network buffer to the parser without copying them, then releases the buffer.
+     */
+    private static List<Branch> parse(PktLineParser parser, DataBuffer buffer) {
+        List<Branch> branches = new ArrayList<>();
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                branches.addAll(parser.feed(byteBuffer));
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return branches;
+    }
+}
@@ -7,18 +7,31 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
 
 import javax.validation.constraints.NotEmpty;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * A service class for making requests to the GitHub API to retrieve information about repositories and their branches.
@@ -28,6 +41,8 @@ import java.util.List;
 public class GithubService {
 
     private static final Logger logger = LoggerFactory.getLogger(GithubService.class);
+    private static final List<String> FETCH_CONTEXT_KEYS = List.of(UpstreamExecutor.LANE_CONTEXT_KEY,
+            UpstreamExecutor.DEADLINE_CONTEXT_KEY, Tracer.SPAN_CONTEXT_KEY); // Passed on to shared fetches
 
     @Value("${github.api.branches.uri}")
     private String branchesUri;
@@ -37,8 +52,34 @@ public class GithubService {
 
     private final WebClient webClient; // The WebClient instance used to make requests to the GitHub API
 
+    private final RepositoryCache repositoryCache; // Listings kept up to date by webhook deliveries
+
+    @Autowired(required = false)
+    private VirtualThreadGithubClient virtualThreadGithubClient; // Present when github.engine=virtual-threads
+
+    @Autowired(required = false)
+    private PeerClient peerClient; // Present when github.peers.enabled=true
+
+    @Autowired(required = false)
+    private AdmissionService admissionService; // Present when github.admission.enabled=true
+
+    @Autowired(required = false)
+    private UpstreamExecutor upstreamExecutor; // Priority lanes for upstream calls
+
+    @Autowired(required = false)
+    private GitBranchSource gitBranchSource; // Present when github.branches.source=git
+
+    @Autowired(required = false)
+    private Tracer tracer; // Child spans for upstream calls of traced requests
+
+    private final Map<String, Mono<List<Repository>>> inFlight = new ConcurrentHashMap<>(); // Upstream fetches by lane and user
+
     /**
      * Retrieves the non-fork repositories of a given GitHub user and returns a Flux of Repository objects.
+     * Listings are served from the {@link RepositoryCache} when present and stored there after a successful fetch,
+     * off the event loops when the cache blocks on I/O.
+     * In peer mode, misses for usernames owned by another instance are forwarded to it through the
+     * {@link PeerClient}, and fetched locally only if the owner is unreachable.
      *
      * @param username the GitHub username of the user whose repositories are to be retrieved
      * @return a Flux of Repository objects
@@ -50,16 +91,278 @@ public class GithubService {
             throw new IllegalArgumentException("Username cannot be null or empty");
         }
 
+        return onCache(() -> repositoryCache.get(username))
+                .flatMap(cached -> {
+                    if (cached.isPresent()) {
+                        logger.debug("Serving cached repositories for user: {}", username);
+                        return Mono.just(cached.get());
+                    }
+                    if (peerClient != null && !peerClient.isOwner(username)) {
+                        return schedule(peerClient.getFromOwner(username))
+                                .onErrorResume(ex -> ex instanceof WebClientRequestException || ex instanceof TimeoutException, ex -> {
+                                    logger.warn("Owner of user {} is unreachable, retrieving repositories locally", username, ex);
+                                    return getOwnedRepositories(username);
+                                });
+                    }
+                    return fetchOwnedRepositories(username);
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user on this instance, without forwarding to a peer.
+     * Each miss waits for a slot of its own client in the fair queue when admission control is enabled, then joins
+     * the upstream fetch of the user if one is in flight, so concurrent misses for the same user share one fetch
+     * without sharing a place in the queue.
+     * Expired listings that are still retained are revalidated with a conditional request on their ETag.
+     * Cache misses are fetched with the Reactor pipeline below, or with the {@link VirtualThreadGithubClient}
+     * when `github.engine` is set to `virtual-threads`.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     * @throws IllegalArgumentException if the provided username is null or empty
+     */
+    public Mono<List<Repository>> getOwnedRepositories(@NonNull @NotEmpty String username) {
+
+        if (StringUtils.isBlank(username)) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+
+        return onCache(() -> repositoryCache.get(username))
+                .flatMap(cached -> {
+                    if (cached.isPresent()) {
+                        logger.debug("Serving cached repositories for user: {}", username);
+                        return Mono.just(cached.get());
+                    }
+                    return fetchOwnedRepositories(username);
+                });
+    }
+
+    /**
+     * Fetches the repositories of a given user after a cache miss, waiting for a slot in the fair queue first.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     */
+    private Mono<List<Repository>> fetchOwnedRepositories(String username) {
+        // The listing may have been cached while the miss was queued
+        return schedule(onCache(() -> repositoryCache.get(username))
+                .flatMap(cached -> cached.map(Mono::just).orElseGet(() -> joinFetch(username))));
+    }
+
+    /**
+     * Joins the upstream fetch of a given user in the caller's upstream lane, starting it if none is in flight.
+     * Fetches are only shared within a lane, so an interactive request never waits on a background fetch and its
+     * longer lane timeout. The fetch runs with the upstream settings and span of the caller that started it, but
+     * none of its other context, so callers that join do not inherit its admission client.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     */
+    private Mono<List<Repository>> joinFetch(String username) {
+        return Mono.deferContextual(caller -> {
+            UpstreamExecutor.Lane lane = caller.getOrDefault(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.INTERACTIVE);
+            String key = lane + ":" + username.toLowerCase(Locale.ROOT);
+            return inFlight.computeIfAbsent(key, ignored -> fetchRepositories(username)
+                    .doFinally(signal -> inFlight.remove(key))
+                    .contextWrite(ignoredContext -> fetchContext(caller))
+                    .cache());
+        });
+    }
+
+    /**
+     * @return the entries of a caller's context that apply to the upstream fetch it starts
+     */
+    private static Context fetchContext(ContextView caller) {
+        Context context = Context.empty();
+        for (String key : FETCH_CONTEXT_KEYS) {
+            if (caller.hasKey(key)) {
+                context = context.put(key, caller.get(key));
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Fetches the non-fork repositories of a given GitHub user from GitHub and stores them in the cache.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     */
+    private Mono<List<Repository>> fetchRepositories(String username) {
         logger.info("Retrieving repositories for user: {}", username);
 
-        return webClient.get()
+        if (virtualThreadGithubClient != null) {
+            return fetchWithVirtualThreads(username).flatMap(repositories -> cache(username, repositories, null));
+        }
+
+        // An expired listing is revalidated with its ETag; GitHub answers 304 without charging the rate limit
+        return onCache(() -> repositoryCache.getForRevalidation(username).filter(listing -> listing.getEtag() != null))
+                .flatMap(previous -> requestListing(username, previous.map(CachedListing::getEtag).orElse(null))
+                        .flatMap(response -> {
+                            if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && previous.isPresent()) {
+                                logger.debug("Repositories of user {} not modified, renewing cached listing", username);
+                                return cache(username, previous.get().getRepositories(), previous.get().getEtag());
+                            }
+
+                            String etag = response.getHeaders().getETag();
+                            return getRepositoriesWithBranches(response)
+                                    .flatMap(repositories -> cache(username, repositories, etag));
+                        }))
+                .onErrorResume(WebClientResponseException.class, ex -> handleWebClientResponseException(ex, username));
+    }
+
+    /**
+     * Fetches the non-fork repositories of a given GitHub user straight from GitHub, for bulk jobs such as the
+     * {@link CrawlJob}. Unlike {@link #getOwnedRepositories(String)}, the cache is neither read nor written and the
+     * fetch is not shared with concurrent misses of API requests, so one-off listings do not crowd the cache and API
+     * requests do not wait on the job's lane.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     * @throws IllegalArgumentException if the provided username is null or empty
+     */
+    public Mono<List<Repository>> fetchUncachedRepositories(@NonNull @NotEmpty String username) {
+
+        if (StringUtils.isBlank(username)) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+
+        if (virtualThreadGithubClient != null) {
+            return fetchWithVirtualThreads(username);
+        }
+
+        return requestListing(username, null)
+                .flatMap(this::getRepositoriesWithBranches)
+                .onErrorResume(WebClientResponseException.class, ex -> handleWebClientResponseException(ex, username));
+    }
+
+    /**
+     * Fetches the non-fork repositories of a given GitHub user with the {@link VirtualThreadGithubClient}, which
+     * takes an upstream slot for each of its calls itself. The span covers the whole listing.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories
+     */
+    private Mono<List<Repository>> fetchWithVirtualThreads(String username) {
+        Mono<List<Repository>> listing = virtualThreadGithubClient.getNonForkRepositories(username).collectList();
+        return tracer == null ? listing : tracer.trace("github.listing", listing,
+                "github.user", username, "github.client", "virtual-threads");
+    }
+
+    /**
+     * Polls the non-fork repositories of a given GitHub user with a conditional request on the ETag of the previous
+     * poll, bypassing the cache. GitHub changes the ETag of a listing whenever one of its repositories is pushed to,
+     * so branches are only fetched again after a change. A changed listing is also stored in the cache.
+     *
+     * @param username the GitHub username of the user whose repositories are to be polled
+     * @param etag the ETag of the previous poll, or null for the first poll
+     * @return a Mono of the changed listing, or an empty Mono if the listing was not modified
+     */
+    public Mono<CachedListing> pollRepositories(@NonNull @NotEmpty String username, String etag) {
+
+        if (StringUtils.isBlank(username)) {
+            throw new IllegalArgumentException("Username cannot be null or empty");
+        }
+
+        return requestListing(username, etag)
+                .flatMap(response -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return Mono.<CachedListing>empty();
+                    }
+
+                    String newEtag = response.getHeaders().getETag();
+                    return getRepositoriesWithBranches(response)
+                            .flatMap(repositories -> cache(username, repositories, newEtag))
+                            .map(repositories -> new CachedListing(repositories, newEtag, System.currentTimeMillis()));
+                })
+                .onErrorResume(WebClientResponseException.class, ex -> handleWebClientResponseException(ex, username));
+    }
+
+    /**
+     * Requests the repository listing of a given user, conditionally if an ETag is given.
+     * The listing frees its upstream slot once the headers arrive, before its branch lookups queue for slots of
+     * their own.
+     *
+     * @param username the GitHub username
+     * @param etag the ETag to send in `If-None-Match`, or null
+     * @return a Mono of the response, with the body still streaming
+     */
+    private Mono<ResponseEntity<Flux<GithubRepoResponse>>> requestListing(String username, String etag) {
+        WebClient.RequestHeadersSpec<?> request = webClient.get()
                 .uri(reposUri, username)
-                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (etag != null) {
+            request = request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return upstream("github.listing", request
                 .retrieve()
-                .bodyToFlux(GithubRepoResponse.class)
+                .toEntityFlux(GithubRepoResponse.class),
+                "github.user", username, "github.conditional", Boolean.toString(etag != null));
+    }
+
+    /**
+     * Looks up the branches of every non-fork repository in a listing response.
+     *
+     * @param response the listing response
+     * @return a Mono of the repositories with their branches
+     */
+    private Mono<List<Repository>> getRepositoriesWithBranches(ResponseEntity<Flux<GithubRepoResponse>> response) {
+        Flux<GithubRepoResponse> body = response.getBody() == null ? Flux.empty() : response.getBody();
+        return body
                 .filter(repo -> !repo.isFork())
                 .flatMap(this::getRepositoryWithBranches)
-                .onErrorResume(WebClientResponseException.class, ex -> handleWebClientResponseException(ex, username));
+                .collectList();
+    }
+
+    /**
+     * Queues upstream work fairly with the work of other clients when admission control is enabled.
+     *
+     * @param work the upstream work
+     * @return a Mono of the result of the work
+     */
+    private <T> Mono<T> schedule(Mono<T> work) {
+        return admissionService == null ? work : admissionService.schedule(work);
+    }
+
+    /**
+     * Runs an upstream call in its priority lane when the {@link UpstreamExecutor} is present, in a child span of the
+     * request when the request is traced. The span includes the time queued for a slot.
+     *
+     * @param span the name of the span
+     * @param call the upstream call
+     * @param attributes alternating attribute names and values of the span
+     * @return a Mono of the result of the call
+     */
+    private <T> Mono<T> upstream(String span, Mono<T> call, String... attributes) {
+        Mono<T> submitted = upstreamExecutor == null ? call : upstreamExecutor.submit(call);
+        return tracer == null ? submitted : tracer.trace(span, submitted, attributes);
+    }
+
+    /**
+     * Stores a complete listing in the {@link RepositoryCache}. Empty listings are not cached.
+     *
+     * @param username the GitHub username of the user whose repositories were retrieved
+     * @param repositories the non-fork repositories of the user
+     * @param etag the ETag of the upstream listing, or null if unknown
+     * @return a Mono of the listing, emitted once it is stored
+     */
+    private Mono<List<Repository>> cache(String username, List<Repository> repositories, String etag) {
+        if (repositories.isEmpty()) {
+            return Mono.just(repositories);
+        }
+        return onCache(() -> {
+            repositoryCache.put(username, repositories, etag);
+            return repositories;
+        });
+    }
+
+    /**
+     * Runs a cache operation, off the event loop if the cache blocks on I/O.
+     */
+    private <T> Mono<T> onCache(Callable<T> operation) {
+        Mono<T> mono = Mono.fromCallable(operation);
+        return repositoryCache.isBlocking() ? mono.subscribeOn(Schedulers.boundedElastic()) : mono;
     }
 
     /**
@@ -87,9 +390,9 @@ public class GithubService {
      *
      * @param ex the WebClientResponseException that was thrown
      * @param username the GitHub username of the user whose repositories were being retrieved
-     * @return a Mono of a Repository object
+     * @return a Mono failing with the mapped exception
      */
-    private Mono<Repository> handleWebClientResponseException(WebClientResponseException ex, String username) {
+    private <T> Mono<T> handleWebClientResponseException(WebClientResponseException ex, String username) {
         logger.error("Error occurred while retrieving repositories for user: {}", username, ex);
 
         HttpStatus status = (HttpStatus) ex.getStatusCode();
@@ -104,6 +407,8 @@ public class GithubService {
 
     /**
      * Retrieves the branches of a given GitHub repository and returns a Mono of a list of Branch objects.
+     * When `github.branches.source` is set to `git`, the branches are read from the git ref advertisement by the
+     * {@link GitBranchSource}, falling back to the REST branches API if that fails.
      *
      * @param owner the owner of the repository
      * @param repo the name of the repository
@@ -115,13 +420,34 @@ public class GithubService {
             throw new IllegalArgumentException("Owner and Repo cannot be null or empty");
         }
 
-        logger.info("Retrieving branches for repository: {}/{}", owner, repo); // Log the request
+        logger.debug("Retrieving branches for repository: {}/{}", owner, repo); // Traced requests get a span instead
+
+        if (gitBranchSource != null) {
+            return upstream("github.branches", gitBranchSource.getBranches(owner, repo).collectList(),
+                    "github.repo", owner + "/" + repo, "github.source", "git")
+                    .onErrorResume(ex -> !(ex instanceof TimeoutException), ex -> {
+                        logger.warn("Reading git refs of {}/{} failed, falling back to the REST API", owner, repo, ex);
+                        return Mono.defer(() -> getBranchesFromApi(owner, repo));
+                    });
+        }
+
+        return getBranchesFromApi(owner, repo);
+    }
 
+    /**
+     * Retrieves the branches of a given GitHub repository from the REST branches API.
+     *
+     * @param owner the owner of the repository
+     * @param repo the name of the repository
+     * @return a Mono of a list of Branch objects
+     */
+    private Mono<List<Branch>> getBranchesFromApi(String owner, String repo) {
         return webClient.get()
                 .uri(branchesUri, owner, repo)
                 .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .retrieve()
                 .bodyToFlux(Branch.class)
-                .collectList();
+                .collectList()
+                .transform(call -> upstream("github.branches", call, "github.repo", owner + "/" + repo, "github.source", "rest"));
     }
 }
@@ -0,0 +1,397 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.models.WebhookEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A service that applies GitHub webhook deliveries incrementally to the {@link RepositoryCache}.
+ * <p>
+ * Deliveries are queued and applied in batches by a single consumer, so bursts are absorbed without
+ * touching the cache concurrently. Duplicate deliveries are dropped by their delivery id. Pushes carry the
+ * SHA they move a branch from, which is used to detect out-of-order deliveries: pushes that do not continue
+ * the cached SHA are retried after the rest of the batch, and the repository is re-fetched if they still
+ * do not fit.
+ * <p>
+ * In peer mode with a cache kept per instance, deliveries for users owned by another peer are also forwarded to the
+ * owner as an eviction of its cached listing, since GitHub sends each delivery to one instance only.
+ */
+@Service
+@RequiredArgsConstructor
+public class GithubWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GithubWebhookService.class);
+    private static final String ZERO_SHA = "0000000000000000000000000000000000000000";
+    private static final String BRANCH_REF_PREFIX = "refs/heads/";
+    private static final int MAX_REMEMBERED_DELIVERIES = 10_000;
+    private static final int MAX_REMEMBERED_SHAS = 10_000;
+
+    @Value("${github.webhook.batch.size:100}")
+    private int batchSize = 100; // Maximum number of deliveries applied in one batch
+
+    @Value("${github.webhook.batch.window:200ms}")
+    private Duration batchWindow = Duration.ofMillis(200); // Maximum time a delivery waits for its batch to fill
+
+    @Value("${github.webhook.queue.capacity:10000}")
+    private int queueCapacity = 10_000; // Deliveries buffered before new ones fall back to cache eviction
+
+    @Value("${github.webhook.refresh.concurrency:4}")
+    private int refreshConcurrency = 4; // Parallel branch re-fetches of out-of-sync repositories
+
+    private final RepositoryCache repositoryCache;
+    private final GithubService githubService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private PeerClient peerClient; // Present when github.peers.enabled=true
+
+    // Only touched by the batch consumer, which applies one batch at a time
+    private final Set<String> deliveredIds = boundedSet(MAX_REMEMBERED_DELIVERIES);
+    private final Set<String> deletedBranches = boundedSet(MAX_REMEMBERED_SHAS);
+    private final Set<String> supersededShas = boundedSet(MAX_REMEMBERED_SHAS);
+
+    private Sinks.Many<WebhookEvent> deliveries;
+    private Disposable subscription;
+
+    /**
+     * Starts the consumer that applies queued deliveries in batches.
+     */
+    @PostConstruct
+    public void start() {
+        deliveries = Sinks.many().unicast().onBackpressureBuffer(Queues.<WebhookEvent>get(queueCapacity).get());
+        subscription = deliveries.asFlux()
+                .bufferTimeout(batchSize, batchWindow)
+                .publishOn(Schedulers.boundedElastic()) // cache backends may block on I/O
+                .concatMap(batch -> applyBatch(batch)
+                        .onErrorResume(ex -> {
+                            logger.error("Failed to apply webhook batch of {} deliveries", batch.size(), ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Stops the batch consumer.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Parses a webhook delivery and queues it to be applied to the cache.
+     *
+     * @param eventType the value of the X-GitHub-Event header
+     * @param deliveryId the value of the X-GitHub-Delivery header
+     * @param payload the raw request body
+     * @return true if the event type is handled, false if it was ignored
+     * @throws IllegalArgumentException if the payload is not valid JSON
+     */
+    public boolean submit(String eventType, String deliveryId, byte[] payload) {
+        Optional<WebhookEvent> event = parse(eventType, deliveryId, payload);
+        if (event.isEmpty()) {
+            logger.debug("Ignoring unsupported webhook event type: {}", eventType);
+            return false;
+        }
+
+        Sinks.EmitResult result = deliveries.tryEmitNext(event.get());
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            // Another request thread is emitting at the same time, retry until it is done
+            Thread.onSpinWait();
+            result = deliveries.tryEmitNext(event.get());
+        }
+        if (result.isFailure()) {
+            // The queue is full: drop the incremental update and make the next read fetch fresh data instead
+            logger.warn("Webhook queue is full ({}), evicting cached repositories of {}", result, event.get().getOwner());
+            repositoryCache.evict(event.get().getOwner());
+        }
+        return true;
+    }
+
+    /**
+     * Parses a webhook delivery into a {@link WebhookEvent}.
+     *
+     * @param eventType the value of the X-GitHub-Event header
+     * @param deliveryId the value of the X-GitHub-Delivery header
+     * @param payload the raw request body
+     * @return the parsed event, or an empty Optional if the event type is not handled
+     * @throws IllegalArgumentException if the payload is not valid JSON
+     */
+    public Optional<WebhookEvent> parse(String eventType, String deliveryId, byte[] payload) {
+        WebhookEvent.Type type;
+        try {
+            type = WebhookEvent.Type.valueOf(eventType.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Webhook payload is not valid JSON", ex);
+        }
+
+        JsonNode repository = root.path("repository");
+        String ref = root.path("ref").asText(null);
+        String branch = switch (type) {
+            case PUSH -> ref != null && ref.startsWith(BRANCH_REF_PREFIX) ? ref.substring(BRANCH_REF_PREFIX.length()) : null;
+            case CREATE, DELETE -> "branch".equals(root.path("ref_type").asText()) ? ref : null;
+            default -> null;
+        };
+
+        return Optional.of(new WebhookEvent(type, deliveryId,
+                repository.path("owner").path("login").asText(null),
+                repository.path("name").asText(null),
+                repository.path("fork").asBoolean(false),
+                branch,
+                root.path("before").asText(null),
+                root.path("after").asText(null),
+                root.path("action").asText(null),
+                root.path("changes").path("repository").path("name").path("from").asText(null)));
+    }
+
+    /**
+     * Applies a batch of deliveries to the cache in delivery order.
+     * Pushes that arrive out of order are retried once the rest of the batch has been applied, and the
+     * branches of repositories that still cannot be brought up to date are re-fetched from GitHub.
+     *
+     * @param batch the deliveries to apply
+     * @return a Mono that completes once all re-fetches have finished
+     */
+    public Mono<Void> applyBatch(List<WebhookEvent> batch) {
+        Set<RepositoryKey> stale = new LinkedHashSet<>();
+        List<WebhookEvent> pending = new ArrayList<>();
+        Set<String> foreignOwners = new LinkedHashSet<>(); // Users owned by another peer, whose owner must evict them
+
+        for (WebhookEvent event : batch) {
+            if (event.getDeliveryId() != null && !deliveredIds.add(event.getDeliveryId())) {
+                logger.debug("Skipping duplicate webhook delivery: {}", event.getDeliveryId());
+                continue;
+            }
+            if (event.getOwner() == null || event.getRepository() == null) {
+                continue;
+            }
+            if (isForeign(event)) {
+                foreignOwners.add(event.getOwner().toLowerCase(Locale.ROOT));
+            }
+            if (!apply(event, stale)) {
+                pending.add(event);
+            }
+        }
+
+        // A push that did not fit may continue a push that was delivered after it
+        boolean progress = true;
+        while (!pending.isEmpty() && progress) {
+            progress = pending.removeIf(this::applyPush);
+        }
+        for (WebhookEvent event : pending) {
+            logger.debug("Push {} does not continue the cached branch head, re-fetching {}/{}",
+                    event.getDeliveryId(), event.getOwner(), event.getRepository());
+            supersededShas.add(shaKey(event, event.getBefore()));
+            stale.add(new RepositoryKey(event.getOwner(), event.getRepository()));
+        }
+
+        return Flux.fromIterable(stale)
+                .flatMap(this::refreshRepository, refreshConcurrency)
+                .mergeWith(Flux.fromIterable(foreignOwners).flatMap(owner -> peerClient.evictOnOwner(owner), refreshConcurrency))
+                .then();
+    }
+
+    /**
+     * @return true if the delivery changes a user whose listing is cached by another peer only
+     */
+    private boolean isForeign(WebhookEvent event) {
+        return peerClient != null && !repositoryCache.isShared()
+                && event.getType() != WebhookEvent.Type.FORK && event.getType() != WebhookEvent.Type.PING
+                && !peerClient.isOwner(event.getOwner());
+    }
+
+    /**
+     * Applies a single delivery.
+     *
+     * @param event the delivery to apply
+     * @param stale collects repositories whose branches have to be re-fetched
+     * @return false if the delivery is a push that does not continue the cached branch head
+     */
+    private boolean apply(WebhookEvent event, Set<RepositoryKey> stale) {
+        RepositoryKey key = new RepositoryKey(event.getOwner(), event.getRepository());
+
+        return switch (event.getType()) {
+            case PUSH -> applyPush(event);
+            case CREATE -> {
+                if (event.getBranch() != null) {
+                    // Create deliveries carry no SHA, the matching push or a re-fetch provides it
+                    deletedBranches.remove(branchKey(event));
+                    if (findBranch(event).isEmpty() && repositoryCache.getRepository(event.getOwner(), event.getRepository()).isPresent()) {
+                        stale.add(key);
+                    }
+                }
+                yield true;
+            }
+            case DELETE -> {
+                if (event.getBranch() != null) {
+                    deletedBranches.add(branchKey(event));
+                    updateBranch(event, null);
+                }
+                yield true;
+            }
+            case REPOSITORY -> {
+                applyRepositoryEvent(event, key, stale);
+                yield true;
+            }
+            // Forks are never part of a non-fork listing and pings carry no data
+            case FORK, PING -> true;
+        };
+    }
+
+    private boolean applyPush(WebhookEvent event) {
+        if (event.getBranch() == null || repositoryCache.getRepository(event.getOwner(), event.getRepository()).isEmpty()) {
+            return true;
+        }
+
+        if (ZERO_SHA.equals(event.getAfter())) {
+            deletedBranches.add(branchKey(event));
+            updateBranch(event, null);
+            return true;
+        }
+        if (ZERO_SHA.equals(event.getBefore())) {
+            deletedBranches.remove(branchKey(event));
+            updateBranch(event, event.getAfter());
+            return true;
+        }
+        Optional<Branch> current = findBranch(event);
+        String currentSha = current.map(branch -> branch.getCommit().getSha()).orElse(null);
+        if (current.isPresent() && Objects.equals(event.getBefore(), currentSha)) {
+            // Continues the cached head, also when a force-push returns the branch to an earlier head
+            supersededShas.add(shaKey(event, event.getBefore()));
+            supersededShas.remove(shaKey(event, event.getAfter()));
+            updateBranch(event, event.getAfter());
+            return true;
+        }
+        if (deletedBranches.contains(branchKey(event)) || supersededShas.contains(shaKey(event, event.getAfter()))) {
+            logger.debug("Ignoring stale push {} to {}/{}:{}", event.getDeliveryId(), event.getOwner(), event.getRepository(), event.getBranch());
+            return true;
+        }
+        if (current.isEmpty()) {
+            supersededShas.add(shaKey(event, event.getBefore()));
+            updateBranch(event, event.getAfter());
+            return true;
+        }
+        return Objects.equals(event.getAfter(), currentSha);
+    }
+
+    private void applyRepositoryEvent(WebhookEvent event, RepositoryKey key, Set<RepositoryKey> stale) {
+        String action = event.getAction() == null ? "" : event.getAction();
+        switch (action) {
+            case "created", "publicized" -> {
+                if (!event.isFork() && repositoryCache.contains(event.getOwner())) {
+                    stale.add(key);
+                }
+            }
+            case "deleted", "privatized" -> repositoryCache.removeRepository(event.getOwner(), event.getRepository());
+            case "renamed" -> repositoryCache.getRepository(event.getOwner(), event.getPreviousName())
+                    .ifPresent(repository -> {
+                        repositoryCache.removeRepository(event.getOwner(), event.getPreviousName());
+                        repositoryCache.putRepository(event.getOwner(),
+                                new Repository(event.getRepository(), repository.getOwner(), repository.getBranches()));
+                    });
+            case "transferred" -> repositoryCache.evict(event.getOwner());
+            default -> logger.debug("Repository action {} does not affect cached branches", action);
+        }
+    }
+
+    private Optional<Branch> findBranch(WebhookEvent event) {
+        return repositoryCache.getRepository(event.getOwner(), event.getRepository())
+                .flatMap(repository -> repository.getBranches().stream()
+                        .filter(branch -> branch.getName().equals(event.getBranch()))
+                        .findFirst());
+    }
+
+    /**
+     * Replaces the head of one branch of a cached repository.
+     *
+     * @param event the delivery naming the repository and branch
+     * @param sha the new head SHA, or null to remove the branch
+     */
+    private void updateBranch(WebhookEvent event, String sha) {
+        repositoryCache.getRepository(event.getOwner(), event.getRepository()).ifPresent(repository -> {
+            List<Branch> branches = new ArrayList<>(repository.getBranches());
+            branches.removeIf(branch -> branch.getName().equals(event.getBranch()));
+            if (sha != null) {
+                branches.add(new Branch(event.getBranch(), new Commit(sha)));
+            }
+            repositoryCache.putRepository(event.getOwner(),
+                    new Repository(repository.getName(), repository.getOwner(), List.copyOf(branches)));
+        });
+    }
+
+    private Mono<Void> refreshRepository(RepositoryKey key) {
+        return githubService.getBranches(key.owner(), key.name())
+                .contextWrite(Context.of(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.BACKGROUND))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(branches -> repositoryCache.putRepository(key.owner(), new Repository(key.name(), key.owner(),
+                        branches.stream()
+                                .map(branch -> new Branch(branch.getName(), new Commit(branch.getCommit().getSha())))
+                                .toList())))
+                .onErrorResume(ex -> {
+                    logger.error("Failed to re-fetch branches of {}/{}, evicting cached repositories", key.owner(), key.name(), ex);
+                    repositoryCache.evict(key.owner());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static String branchKey(WebhookEvent event) {
+        return (event.getOwner() + "/" + event.getRepository()).toLowerCase(Locale.ROOT) + ":" + event.getBranch();
+    }
+
+    private static String shaKey(WebhookEvent event, String sha) {
+        return branchKey(event) + "@" + sha;
+    }
+
+    private static Set<String> boundedSet(int maxSize) {
+        return Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private record RepositoryKey(String owner, String name) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.exercise.github.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default {@link RateLimitBudget} backend, tracking the budget in the memory of this instance.
+ * Requests are allowed until the first upstream response reports a budget, and again once its window has ended.
+ */
+@Component
+@ConditionalOnProperty(name = "github.ratelimit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBudget implements RateLimitBudget {
+
+    private final AtomicLong remaining = new AtomicLong();
+    private volatile Instant reset;
+
+    private final Clock clock;
+
+    public InMemoryRateLimitBudget() {
+        this(Clock.systemUTC());
+    }
+
+    InMemoryRateLimitBudget(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        Instant currentReset = reset;
+        if (currentReset == null || !clock.instant().isBefore(currentReset)) {
+            return true;
+        }
+        return remaining.getAndDecrement() > 0;
+    }
+
+    @Override
+    public synchronized void update(long remaining, Instant reset) {
+        Instant currentReset = this.reset;
+        if (currentReset != null && reset.isBefore(currentReset)) {
+            return; // a late response from an earlier window
+        }
+        if (reset.equals(currentReset)) {
+            this.remaining.accumulateAndGet(remaining, Math::min);
+            return;
+        }
+        this.remaining.set(remaining);
+        this.reset = reset;
+    }
+
+    @Override
+    public Instant resetAt() {
+        return reset;
+    }
+}
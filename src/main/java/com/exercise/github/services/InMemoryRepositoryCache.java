@@ -0,0 +1,73 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.CachedListing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * The default {@link RepositoryCache} backend, keeping listings in the memory of this instance.
+ * Listings past their retention are dropped when they are next read, and at most `github.cache.max-entries`
+ * listings are kept, evicting the least recently used one first.
+ */
+@Component
+@ConditionalOnProperty(name = "github.cache.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRepositoryCache extends AbstractRepositoryCache {
+
+    @Value("${github.cache.max-entries:10000}")
+    private int maxEntries = 10_000; // Users whose listings are kept
+
+    private final Map<String, CachedListing> entries = new LinkedHashMap<>(16, 0.75f, true) { // Guarded by itself
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedListing> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public InMemoryRepositoryCache() {
+        this(Clock.systemUTC());
+    }
+
+    InMemoryRepositoryCache(Clock clock) {
+        super(clock);
+    }
+
+    @Override
+    protected Optional<CachedListing> load(String key) {
+        synchronized (entries) {
+            CachedListing listing = entries.get(key);
+            if (listing != null && listing.getStoredAt() + retention().toMillis() < clock.millis()) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            return Optional.ofNullable(listing);
+        }
+    }
+
+    @Override
+    protected void store(String key, CachedListing listing) {
+        synchronized (entries) {
+            entries.put(key, listing);
+        }
+    }
+
+    @Override
+    protected void delete(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    protected void update(String key, UnaryOperator<CachedListing> update) {
+        synchronized (entries) {
+            entries.computeIfPresent(key, (k, listing) -> update.apply(listing));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Span;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A {@link SpanExporter} keeping the latest `github.tracing.memory.capacity` spans in memory, for tests and for
+ * inspecting a running instance.
+ */
+@Component
+@ConditionalOnProperty(name = "github.tracing.exporter", havingValue = "memory")
+public class InMemorySpanExporter implements SpanExporter {
+
+    @Value("${github.tracing.memory.capacity:1000}")
+    private int capacity = 1000;
+
+    // Guarded by this
+    private final Deque<Span> spans = new ArrayDeque<>();
+
+    @Override
+    public synchronized void export(List<Span> batch) {
+        for (Span span : batch) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+            }
+            spans.addLast(span);
+        }
+    }
+
+    /**
+     * @return the retained spans, oldest first
+     */
+    public synchronized List<Span> spans() {
+        return List.copyOf(spans);
+    }
+
+    /**
+     * Drops all retained spans.
+     */
+    public synchronized void clear() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Span;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The default {@link SpanExporter}, writing every span as one JSON line to the `com.exercise.github.tracing` logger.
+ * This is the structured log of upstream calls: it covers sampled requests only, and is written from the export
+ * thread rather than the request path.
+ */
+@Component
+@ConditionalOnProperty(name = "github.tracing.exporter", havingValue = "log", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LoggingSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger("com.exercise.github.tracing");
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void export(List<Span> spans) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        for (Span span : spans) {
+            try {
+                logger.info(objectMapper.writeValueAsString(span));
+            } catch (JsonProcessingException ex) {
+                logger.warn("Failed to serialize span {}", span.getName(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.models.Repository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes cache misses to the peer that owns the username, so that each user is fetched from GitHub by one
+ * instance only, selected with `github.peers.enabled=true`.
+ * <p>
+ * Peers are listed statically in `github.peers.urls` and mapped to usernames by a {@link PeerRing}. Misses for
+ * usernames owned by another peer are forwarded to its internal endpoint, where concurrent misses are coalesced
+ * into one upstream fetch. Usernames requested at least `github.peers.hot-key.threshold` times within
+ * `github.peers.hot-key.window` are replicated in a small local cache for `github.peers.hot-key.ttl`, so that a
+ * single hot user does not pin all traffic on its owner.
+ * <p>
+ * The internal endpoint bypasses admission control, so forwarded requests carry the shared `github.peers.secret`
+ * in the `X-Peer-Secret` header, and the endpoint rejects calls without it. The same endpoint evicts a listing
+ * from the owner's cache when another peer received a webhook delivery for it.
+ */
+@Component
+@ConditionalOnProperty(name = "github.peers.enabled", havingValue = "true")
+public class PeerClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeerClient.class);
+    public static final String PEER_REPOSITORIES_PATH = "/internal/peers/repositories/{username}";
+    public static final String PEER_SECRET_HEADER = "X-Peer-Secret";
+    private static final ParameterizedTypeReference<List<Repository>> REPOSITORIES = new ParameterizedTypeReference<>() {
+    };
+
+    @Value("${github.peers.self}")
+    private String self; // The base URL under which the other peers reach this instance
+
+    @Value("${github.peers.urls}")
+    private String[] urls; // The base URLs of all peers, including this instance
+
+    @Value("${github.peers.secret:}")
+    private String secret; // Shared by all peers, authenticates calls to the internal endpoint
+
+    @Value("${github.peers.virtual-nodes:100}")
+    private int virtualNodes;
+
+    @Value("${github.peers.timeout:5s}")
+    private Duration timeout; // How long to wait for the owner before fetching locally
+
+    @Value("${github.peers.hot-key.threshold:10}")
+    private int hotKeyThreshold;
+
+    @Value("${github.peers.hot-key.window:10s}")
+    private Duration hotKeyWindow;
+
+    @Value("${github.peers.hot-key.ttl:5s}")
+    private Duration hotKeyTtl; // Upper bound on staleness, hot replicas are not updated by webhooks
+
+    @Value("${github.peers.hot-key.capacity:1000}")
+    private int hotKeyCapacity;
+
+    private final WebClient peerWebClient;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, HotEntry> hotCache = new ConcurrentHashMap<>();
+    private volatile long windowStart = System.currentTimeMillis();
+    private PeerRing ring;
+
+    public PeerClient(WebClient.Builder builder) {
+        // A separate client, peer calls are not charged against the GitHub rate-limit budget
+        this.peerWebClient = builder.build();
+    }
+
+    /**
+     * Builds the ring from the configured peers.
+     */
+    @PostConstruct
+    public void start() {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("github.peers.secret must be set when github.peers.enabled=true");
+        }
+        self = normalize(self);
+        List<String> peers = Arrays.stream(urls).map(PeerClient::normalize).distinct().toList();
+        if (!peers.contains(self)) {
+            throw new IllegalStateException("github.peers.urls must contain github.peers.self: " + self);
+        }
+        ring = new PeerRing(peers, virtualNodes);
+        logger.info("Peer mode enabled as {} with {} peers", self, peers.size());
+    }
+
+    /**
+     * Returns true if this instance owns the given username and fetches it from GitHub itself.
+     *
+     * @param username the GitHub username
+     * @return true if this instance is the owner
+     */
+    public boolean isOwner(String username) {
+        return self.equals(ring.ownerOf(username));
+    }
+
+    /**
+     * Returns true if a call to the internal endpoint carries the shared peer secret.
+     *
+     * @param sentSecret the value of the `X-Peer-Secret` header, or null
+     * @return true if the secret matches
+     */
+    public boolean isPeerSecret(String sentSecret) {
+        return sentSecret != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                sentSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieves the repositories of a given user from the peer that owns it, or from the local hot replica.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Mono of the repositories, failing with {@link GithubUserNotFoundException} or
+     * {@link RateLimitExceededException} as reported by the owner, or with a `WebClientRequestException` or
+     * `TimeoutException` if it is unreachable
+     */
+    public Mono<List<Repository>> getFromOwner(String username) {
+        String key = username.toLowerCase(Locale.ROOT);
+        HotEntry hot = hotCache.get(key);
+        if (hot != null && hot.storedAt() + hotKeyTtl.toMillis() >= System.currentTimeMillis()) {
+            logger.debug("Serving hot replica for user: {}", username);
+            return Mono.just(hot.repositories());
+        }
+
+        boolean isHot = countRequest(key) >= hotKeyThreshold;
+        String owner = ring.ownerOf(username);
+        logger.debug("Forwarding repositories of user {} to owner {}", username, owner);
+
+        return peerWebClient.get()
+                .uri(owner + PEER_REPOSITORIES_PATH, username)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(PEER_SECRET_HEADER, secret)
+                .retrieve()
+                .bodyToMono(REPOSITORIES)
+                .timeout(timeout)
+                .doOnNext(repositories -> {
+                    if (isHot && !repositories.isEmpty()) {
+                        replicate(key, repositories);
+                    }
+                })
+                .onErrorMap(WebClientResponseException.class, ex -> mapResponseException(ex, username));
+    }
+
+    /**
+     * Asks the peer that owns a given user to evict its cached listing, after a webhook delivery for the user was
+     * received by this instance. Failures are logged and dropped; the owner's listing then expires with its TTL.
+     *
+     * @param username the GitHub username
+     * @return a Mono completing once the owner has answered, never failing
+     */
+    public Mono<Void> evictOnOwner(String username) {
+        String owner = ring.ownerOf(username);
+        logger.debug("Forwarding eviction of user {} to owner {}", username, owner);
+
+        return peerWebClient.delete()
+                .uri(owner + PEER_REPOSITORIES_PATH, username)
+                .header(PEER_SECRET_HEADER, secret)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .then()
+                .onErrorResume(ex -> {
+                    logger.warn("Failed to forward eviction of user {} to owner {}", username, owner, ex);
+                    return Mono.empty();
+                });
+    }
+
+    private int countRequest(String key) {
+        long now = System.currentTimeMillis();
+        if (now - windowStart > hotKeyWindow.toMillis()) {
+            windowStart = now;
+            requestCounts.clear();
+        }
+        return requestCounts.computeIfAbsent(key, ignored -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void replicate(String key, List<Repository> repositories) {
+        if (hotCache.size() >= hotKeyCapacity && !hotCache.containsKey(key)) {
+            long expiredBefore = System.currentTimeMillis() - hotKeyTtl.toMillis();
+            hotCache.values().removeIf(entry -> entry.storedAt() < expiredBefore);
+            if (hotCache.size() >= hotKeyCapacity) {
+                return;
+            }
+        }
+        hotCache.put(key, new HotEntry(repositories, System.currentTimeMillis()));
+    }
+
+    private static Throwable mapResponseException(WebClientResponseException ex, String username) {
+        if (ex.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+            return new GithubUserNotFoundException(username);
+        }
+        if (ex.getStatusCode().isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+            return new RateLimitExceededException(parseRetryAfter(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)));
+        }
+        logger.error("Owner failed to retrieve repositories for user: {}", username, ex);
+        return new Exception("An error occurred while processing your request.");
+    }
+
+    /**
+     * Parses a `Retry-After` header, given either in delta-seconds or as an HTTP-date. A malformed header is
+     * treated as absent.
+     *
+     * @return when the owner expects to serve again, or null if unknown
+     */
+    private static Instant parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return null;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Instant.now().plusSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException ex) {
+            // not delta-seconds, try an HTTP-date
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException ex) {
+            logger.debug("Ignoring malformed Retry-After header: {}", retryAfter);
+            return null;
+        }
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private record HotEntry(List<Repository> repositories, long storedAt) {
+    }
+}
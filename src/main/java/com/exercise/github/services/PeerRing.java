@@ -0,0 +1,58 @@
+package com.exercise.github.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A consistent-hash ring mapping usernames to the peer that owns them.
+ * <p>
+ * Every peer is placed on the ring at `virtualNodes` points, and a username belongs to the first peer at or after
+ * its own hash. Adding or removing a peer only moves the usernames of the ring segments next to its points, and the
+ * virtual nodes spread both the usernames and the moved segments evenly over the peers.
+ */
+public class PeerRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    /**
+     * @param peers the base URLs of all peers, including this instance
+     * @param virtualNodes the number of points per peer on the ring
+     */
+    public PeerRing(List<String> peers, int virtualNodes) {
+        if (peers.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A peer ring needs at least one peer and one virtual node per peer");
+        }
+        for (String peer : peers) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(peer + "#" + i), peer);
+            }
+        }
+    }
+
+    /**
+     * Returns the peer that owns the given username.
+     *
+     * @param username the GitHub username, case-insensitive
+     * @return the base URL of the owning peer
+     */
+    public String ownerOf(String username) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash(username.toLowerCase(Locale.ROOT)));
+        return (owner != null ? owner : ring.firstEntry()).getValue();
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 is not available", ex); // required on every Java platform
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An incremental parser of the git smart-HTTP ref advertisement (`info/refs?service=git-upload-pack`), extracting
+ * the branch heads from its pkt-lines.
+ * <p>
+ * Every pkt-line starts with its length as four hex digits, including the length itself; `0000` is a flush packet.
+ * Ref lines read `{sha} {refname}\n`, where the first one also carries the capabilities after a NUL byte.
+ * The parser reads the buffers it is fed in place and only materializes the name and SHA of `refs/heads/*` refs.
+ * A pkt-line split across buffers is carried over by copying just its received part.
+ * <p>
+ * A parser holds the state of one response and is not thread-safe.
+ */
+public class PktLineParser {
+
+    private static final int MAX_PKT_LENGTH = 65520;
+    private static final byte[] HEADS_PREFIX = "refs/heads/".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] carry; // The received part of a pkt-line split across buffers
+    private int carryLength;
+    private int carryPktLength; // The length of the carried pkt-line, or -1 while its header is incomplete
+
+    /**
+     * Parses the complete pkt-lines in the buffer, and carries over a trailing incomplete one.
+     *
+     * @param buffer the next part of the advertisement, consumed by this call
+     * @return the branches advertised in the complete pkt-lines
+     * @throws IllegalStateException if the data is not a pkt-line stream
+     */
+    public List<Branch> feed(ByteBuffer buffer) {
+        List<Branch> branches = new ArrayList<>();
+        if (carryLength > 0 && !completeCarry(buffer, branches)) {
+            return branches;
+        }
+
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = pktLength(buffer, start);
+            if (length < 4) {
+                buffer.position(start + 4); // flush, delimiter or response-end packet
+                continue;
+            }
+            if (buffer.remaining() < length) {
+                break;
+            }
+            parseRef(buffer, start + 4, start + length, branches);
+            buffer.position(start + length);
+        }
+
+        if (buffer.hasRemaining()) {
+            startCarry(buffer);
+        }
+        return branches;
+    }
+
+    /**
+     * Checks that the advertisement did not end in the middle of a pkt-line.
+     *
+     * @throws IllegalStateException if a pkt-line is incomplete
+     */
+    public void finish() {
+        if (carryLength > 0) {
+            throw new IllegalStateException("Ref advertisement ended inside a pkt-line");
+        }
+    }
+
+    private void startCarry(ByteBuffer buffer) {
+        if (carry == null) {
+            carry = new byte[MAX_PKT_LENGTH];
+        }
+        carryLength = buffer.remaining();
+        buffer.get(carry, 0, carryLength);
+        carryPktLength = carryLength >= 4 ? pktLength(ByteBuffer.wrap(carry), 0) : -1;
+    }
+
+    /**
+     * Appends the buffer to the carried pkt-line until it is complete, then parses it.
+     *
+     * @return true if the carried pkt-line was completed
+     */
+    private boolean completeCarry(ByteBuffer buffer, List<Branch> branches) {
+        if (carryPktLength < 0) {
+            int header = Math.min(4 - carryLength, buffer.remaining());
+            buffer.get(carry, carryLength, header);
+            carryLength += header;
+            if (carryLength < 4) {
+                return false;
+            }
+            carryPktLength = pktLength(ByteBuffer.wrap(carry), 0);
+        }
+        int target = Math.max(carryPktLength, 4); // special packets are the bare header
+        int missing = Math.min(target - carryLength, buffer.remaining());
+        buffer.get(carry, carryLength, missing);
+        carryLength += missing;
+        if (carryLength < target) {
+            return false;
+        }
+        if (carryPktLength >= 4) {
+            parseRef(ByteBuffer.wrap(carry), 4, carryPktLength, branches);
+        }
+        carryLength = 0;
+        return true;
+    }
+
+    private static int pktLength(ByteBuffer buffer, int index) {
+        int length = 0;
+        for (int i = index; i < index + 4; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                throw new IllegalStateException("Malformed pkt-line length");
+            }
+            length = length * 16 + digit;
+        }
+        if (length > MAX_PKT_LENGTH || (length > 2 && length < 4)) {
+            throw new IllegalStateException("Invalid pkt-line length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Adds the branch named in the ref line between start and end, if it is one.
+     * Other lines, like the `# service=` header and tags, pull requests and HEAD, are skipped.
+     */
+    private static void parseRef(ByteBuffer buffer, int start, int end, List<Branch> branches) {
+        int space = -1;
+        int refEnd = end;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == ' ' && space < 0) {
+                space = i;
+            } else if (b == 0 || b == '\n') {
+                refEnd = i;
+                break;
+            }
+        }
+        int shaLength = space - start;
+        if (space < 0 || (shaLength != 40 && shaLength != 64) || !startsWith(buffer, space + 1, refEnd, HEADS_PREFIX)) {
+            return;
+        }
+        String name = decode(buffer, space + 1 + HEADS_PREFIX.length, refEnd);
+        String sha = decode(buffer, start, space);
+        branches.add(new Branch(name, new Commit(sha)));
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start <= prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
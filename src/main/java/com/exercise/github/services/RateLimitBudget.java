@@ -0,0 +1,41 @@
+package com.exercise.github.services;
+
+import java.time.Instant;
+
+/**
+ * The remaining GitHub API rate-limit budget, consumed before every upstream call and corrected from the
+ * `X-RateLimit-Remaining` and `X-RateLimit-Reset` headers of every response.
+ * <p>
+ * The backend is selected with `github.ratelimit.backend`: `memory` (default) tracks the budget per instance,
+ * `redis` shares one budget across all instances so that together they stay within the upstream limit.
+ */
+public interface RateLimitBudget {
+
+    /**
+     * Takes one request from the budget.
+     *
+     * @return false if the budget is exhausted until {@link #resetAt()}
+     */
+    boolean tryAcquire();
+
+    /**
+     * Corrects the budget with the values reported by GitHub. Responses can arrive out of order, so within the
+     * current window the remaining budget is only ever lowered, and a report of an earlier window is ignored.
+     *
+     * @param remaining the requests left in the current window
+     * @param reset when the current window ends
+     */
+    void update(long remaining, Instant reset);
+
+    /**
+     * @return when the current window ends, or null if no upstream response has been seen yet
+     */
+    Instant resetAt();
+
+    /**
+     * @return true if the operations block on I/O and must not be called on event-loop threads
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.exercise.github.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A {@link RateLimitBudget} backend that shares one budget across all instances through Redis.
+ * <p>
+ * `github:ratelimit:reset` holds the end of the current window and `github:ratelimit:remaining:{reset}` the
+ * requests left in it; both expire when the window ends. Every instance takes requests with an atomic `DECR`, so
+ * the fleet together never spends more than GitHub last reported. Requests are allowed while no window is known.
+ * <p>
+ * Reports are applied optimistically under `WATCH` of the reset key: a later window replaces both keys, a report of
+ * the current window only lowers the counter by `DECRBY`, and a report of an earlier window is dropped. Requests
+ * taken while a report is applied are subtracted from the lowered counter as well, which errs on the safe side.
+ */
+@Component
+@ConditionalOnProperty(name = "github.ratelimit.backend", havingValue = "redis")
+public class RedisRateLimitBudget implements RateLimitBudget {
+
+    static final String RESET_KEY = "github:ratelimit:reset";
+    static final String REMAINING_KEY_PREFIX = "github:ratelimit:remaining:";
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimitBudget.class);
+    private static final Duration MIN_TTL = Duration.ofSeconds(1);
+    private static final int MAX_UPDATE_ATTEMPTS = 5; // Concurrent reports of a new window, the next response corrects
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock = Clock.systemUTC();
+
+    public RedisRateLimitBudget(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        String reset = redisTemplate.opsForValue().get(RESET_KEY);
+        if (reset == null) {
+            return true;
+        }
+        Long remaining = redisTemplate.opsForValue().decrement(REMAINING_KEY_PREFIX + reset);
+        if (remaining != null && remaining == -1) {
+            // The counter expired together with its window, make sure the recreated one does not outlive it either
+            redisTemplate.expire(REMAINING_KEY_PREFIX + reset, ttl(Instant.ofEpochSecond(Long.parseLong(reset))));
+        }
+        return remaining != null && remaining >= 0;
+    }
+
+    @Override
+    public void update(long remaining, Instant reset) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            if (Boolean.TRUE.equals(redisTemplate.execute(new BudgetUpdate(remaining, reset)))) {
+                return;
+            }
+        }
+        logger.debug("Rate-limit report of {} remaining until {} lost to concurrent reports", remaining, reset);
+    }
+
+    @Override
+    public Instant resetAt() {
+        String reset = redisTemplate.opsForValue().get(RESET_KEY);
+        return reset == null ? null : Instant.ofEpochSecond(Long.parseLong(reset));
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    private Duration ttl(Instant reset) {
+        Duration ttl = Duration.between(clock.instant(), reset);
+        return ttl.compareTo(MIN_TTL) < 0 ? MIN_TTL : ttl;
+    }
+
+    /**
+     * Applies one report in a transaction, returning false if another report moved the window meanwhile.
+     */
+    private final class BudgetUpdate implements SessionCallback<Boolean> {
+        private final long remaining;
+        private final Instant reset;
+
+        private BudgetUpdate(long remaining, Instant reset) {
+            this.remaining = remaining;
+            this.reset = reset;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Boolean execute(RedisOperations<K, V> operations) {
+            RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+            long window = reset.getEpochSecond();
+            String remainingKey = REMAINING_KEY_PREFIX + window;
+            Duration ttl = ttl(reset);
+
+            redis.watch(RESET_KEY);
+            String currentReset = redis.opsForValue().get(RESET_KEY);
+            String current = currentReset == null ? null : redis.opsForValue().get(remainingKey);
+            boolean sameWindow = currentReset != null && Long.parseLong(currentReset) == window && current != null;
+            if ((currentReset != null && Long.parseLong(currentReset) > window)
+                    || (sameWindow && Long.parseLong(current) <= remaining)) {
+                redis.unwatch(); // an earlier window, or nothing to lower
+                return true;
+            }
+
+            redis.multi();
+            if (sameWindow) {
+                redis.opsForValue().decrement(remainingKey, Long.parseLong(current) - remaining);
+                redis.expire(remainingKey, ttl);
+            } else {
+                redis.opsForValue().set(remainingKey, String.valueOf(remaining), ttl);
+                redis.opsForValue().set(RESET_KEY, String.valueOf(window), ttl);
+            }
+            List<Object> results = redis.exec();
+            return results != null && !results.isEmpty();
+        }
+    }
+}
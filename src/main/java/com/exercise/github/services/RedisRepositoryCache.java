@@ -0,0 +1,133 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.CachedListing;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link RepositoryCache} backend that shares listings across all instances through Redis.
+ * <p>
+ * Listings are stored as JSON under `github:repos:{login}` and expire after their retention. Each instance keeps
+ * recently read listings in a near cache for `github.cache.near-ttl`; every write is announced on the
+ * `github:repos:invalidate` channel so that the other instances drop their near-cached copy immediately.
+ * Single-repository updates read, modify and write the whole listing, so concurrent webhook updates of the same
+ * user on different instances are last-writer-wins.
+ */
+@Component
+@ConditionalOnProperty(name = "github.cache.backend", havingValue = "redis")
+public class RedisRepositoryCache extends AbstractRepositoryCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRepositoryCache.class);
+    static final String KEY_PREFIX = "github:repos:";
+    static final String INVALIDATION_CHANNEL = "github:repos:invalidate";
+
+    @Value("${github.cache.near-ttl:5s}")
+    private Duration nearTtl = Duration.ofSeconds(5); // Upper bound on staleness if an invalidation is missed
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, NearEntry> nearCache = new ConcurrentHashMap<>();
+
+    public RedisRepositoryCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                RedisMessageListenerContainer listenerContainer) {
+        super(Clock.systemUTC());
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    protected Optional<CachedListing> load(String key) {
+        NearEntry near = nearCache.get(key);
+        if (near != null && near.loadedAt() + nearTtl.toMillis() >= clock.millis()) {
+            return Optional.of(near.listing());
+        }
+
+        String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        if (json == null) {
+            nearCache.remove(key);
+            return Optional.empty();
+        }
+        try {
+            CachedListing listing = objectMapper.readValue(json, CachedListing.class);
+            nearCache.put(key, new NearEntry(listing, clock.millis()));
+            return Optional.of(listing);
+        } catch (JsonProcessingException ex) {
+            logger.warn("Dropping unreadable cache entry: {}", key, ex);
+            delete(key);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    protected void store(String key, CachedListing listing) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, objectMapper.writeValueAsString(listing), retention());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize cache entry: " + key, ex);
+        }
+        nearCache.put(key, new NearEntry(listing, clock.millis()));
+        invalidateOthers(key);
+    }
+
+    @Override
+    protected void delete(String key) {
+        redisTemplate.delete(KEY_PREFIX + key);
+        nearCache.remove(key);
+        invalidateOthers(key);
+    }
+
+    @Override
+    protected void update(String key, UnaryOperator<CachedListing> update) {
+        nearCache.remove(key);
+        load(key).ifPresent(listing -> store(key, update.apply(listing)));
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * Drops the near-cached listing named in an invalidation published by another instance.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] payload = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 2);
+        if (payload.length == 2 && !payload[0].equals(instanceId)) {
+            nearCache.remove(payload[1]);
+        }
+    }
+
+    private void invalidateOthers(String key) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + "\n" + key);
+    }
+
+    private record NearEntry(CachedListing listing, long loadedAt) {
+    }
+}
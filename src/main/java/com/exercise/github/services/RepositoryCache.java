@@ -0,0 +1,110 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.CachedListing;
+import com.exercise.github.models.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A cache of the non-fork repositories (and their branches) of GitHub users, keyed by the case-insensitive login.
+ * <p>
+ * Listings are fresh for `github.cache.ttl`. Expired listings are kept for another `github.cache.stale-ttl` together
+ * with their upstream `ETag`, so they can be revalidated with a conditional request instead of being fetched again.
+ * The backend is selected with `github.cache.backend`: `memory` (default) keeps listings per instance, `redis`
+ * shares them across all instances.
+ */
+public interface RepositoryCache {
+
+    /**
+     * Returns the cached repositories of the given user, if present and fresh.
+     *
+     * @param username the GitHub username
+     * @return the cached repositories, or an empty Optional on a cache miss
+     */
+    Optional<List<Repository>> get(String username);
+
+    /**
+     * Returns the cached listing of the given user even if it is no longer fresh, for revalidation.
+     *
+     * @param username the GitHub username
+     * @return the cached listing with its ETag, or an empty Optional if nothing is retained
+     */
+    Optional<CachedListing> getForRevalidation(String username);
+
+    /**
+     * Returns true if a fresh listing of the given user is cached.
+     *
+     * @param username the GitHub username
+     * @return true if the user has a fresh cached listing
+     */
+    default boolean contains(String username) {
+        return get(username).isPresent();
+    }
+
+    /**
+     * Stores the complete listing of the given user without an ETag, replacing any previous entry.
+     *
+     * @param username the GitHub username
+     * @param repositories the non-fork repositories of the user
+     */
+    default void put(String username, List<Repository> repositories) {
+        put(username, repositories, null);
+    }
+
+    /**
+     * Stores the complete listing of the given user, replacing any previous entry.
+     *
+     * @param username the GitHub username
+     * @param repositories the non-fork repositories of the user
+     * @param etag the ETag of the upstream listing, or null if unknown
+     */
+    void put(String username, List<Repository> repositories, String etag);
+
+    /**
+     * Removes the listing of the given user from the cache.
+     *
+     * @param username the GitHub username
+     */
+    void evict(String username);
+
+    /**
+     * Returns a single cached repository of the given owner.
+     *
+     * @param owner the owner of the repository
+     * @param name the name of the repository
+     * @return the cached repository, or an empty Optional if the owner or the repository is not cached
+     */
+    Optional<Repository> getRepository(String owner, String name);
+
+    /**
+     * Adds or replaces a single repository in the listing of its owner.
+     * Does nothing if the listing of the owner is not cached, so that partial listings are never served.
+     *
+     * @param owner the owner of the repository
+     * @param repository the repository to store
+     */
+    void putRepository(String owner, Repository repository);
+
+    /**
+     * Removes a single repository from the listing of its owner.
+     *
+     * @param owner the owner of the repository
+     * @param name the name of the repository to remove
+     */
+    void removeRepository(String owner, String name);
+
+    /**
+     * @return true if the cache is shared by all instances, so that a write on one instance is seen by the others
+     */
+    default boolean isShared() {
+        return false;
+    }
+
+    /**
+     * @return true if the operations block on I/O and must not be called on event-loop threads
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Span;
+
+import java.util.List;
+
+/**
+ * A destination for the finished spans of sampled traces, selected with `github.tracing.exporter`: `log` (default)
+ * writes every span as a JSON line to the `com.exercise.github.tracing` logger, `file` appends them to an NDJSON
+ * file, `memory` keeps the latest spans in memory and `none` disables tracing.
+ * <p>
+ * The {@link Tracer} calls the exporter with batches of spans from a single background thread, never from the
+ * request path.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports a batch of finished spans.
+     *
+     * @param spans the spans, in the order in which they finished
+     */
+    void export(List<Span> spans);
+}
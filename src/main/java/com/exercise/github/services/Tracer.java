@@ -0,0 +1,215 @@
+package com.exercise.github.services;
+
+import com.exercise.github.models.Span;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Traces incoming requests and the upstream calls made for them.
+ * <p>
+ * Sampling is decided once per trace, at its head: a request continues the decision of an incoming `traceparent`
+ * header, or else is sampled with probability `github.tracing.sample-rate`. Unsampled requests get no span at all,
+ * so tracing costs them one random number. The span of a sampled request travels down the Reactor chain in the
+ * context under {@link #SPAN_CONTEXT_KEY}, and every upstream call wrapped with {@link #trace} becomes its child.
+ * <p>
+ * Finished spans are queued and handed to the {@link SpanExporter} in batches on a background thread; when the
+ * queue is full they are dropped and counted in `github.tracing.dropped`. Without an exporter
+ * (`github.tracing.exporter=none`) tracing is disabled.
+ */
+@Component
+public class Tracer {
+
+    private static final Logger logger = LoggerFactory.getLogger(Tracer.class);
+    public static final String SPAN_CONTEXT_KEY = "github.tracing.span";
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Pattern TRACEPARENT = Pattern.compile("00-[0-9a-f]{32}-[0-9a-f]{16}-[0-9a-f]{2}");
+
+    @Value("${github.tracing.sample-rate:0.01}")
+    private double sampleRate = 0.01; // Share of requests traced, from 0 to 1
+
+    @Value("${github.tracing.queue-capacity:10000}")
+    private int queueCapacity = 10_000; // Finished spans waiting for export before new ones are dropped
+
+    @Value("${github.tracing.batch.size:512}")
+    private int batchSize = 512;
+
+    @Value("${github.tracing.batch.window:1s}")
+    private Duration batchWindow = Duration.ofSeconds(1);
+
+    private final ObjectProvider<SpanExporter> exporters;
+    private final MeterRegistry meterRegistry;
+
+    private SpanExporter exporter;
+    private Sinks.Many<Span> finished;
+    private Disposable subscription;
+    private Counter dropped;
+
+    public Tracer(ObjectProvider<SpanExporter> exporters, MeterRegistry meterRegistry) {
+        this.exporters = exporters;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts the exporting of finished spans, if an exporter is configured.
+     */
+    @PostConstruct
+    public void start() {
+        exporter = exporters.getIfAvailable();
+        if (exporter == null) {
+            logger.info("Tracing disabled, no span exporter configured");
+            return;
+        }
+        dropped = meterRegistry.counter("github.tracing.dropped");
+        finished = Sinks.many().unicast().onBackpressureBuffer(Queues.<Span>get(queueCapacity).get());
+        subscription = finished.asFlux()
+                .bufferTimeout(batchSize, batchWindow)
+                .publishOn(Schedulers.boundedElastic()) // exporters may block on I/O
+                .subscribe(batch -> {
+                    try {
+                        exporter.export(batch);
+                    } catch (RuntimeException ex) {
+                        logger.warn("Failed to export {} spans", batch.size(), ex);
+                    }
+                });
+        logger.info("Tracing {}% of requests with {}", sampleRate * 100, exporter.getClass().getSimpleName());
+    }
+
+    /**
+     * Stops the exporting of finished spans.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * @return true if spans are exported
+     */
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+
+    /**
+     * Starts the root span of an incoming request, if its trace is sampled.
+     *
+     * @param name the name of the span
+     * @param traceparent the W3C `traceparent` header of the request, or null
+     * @return the span, or null if the trace is not sampled
+     */
+    public Span startRootSpan(String name, String traceparent) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String traceId;
+        String parentSpanId = null;
+        if (traceparent != null && TRACEPARENT.matcher(traceparent).matches()) {
+            if ((HexFormat.fromHexDigits(traceparent, 53, 55) & 1) == 0) {
+                return null; // the caller decided not to sample
+            }
+            traceId = traceparent.substring(3, 35);
+            parentSpanId = traceparent.substring(36, 52);
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            traceId = randomId(16);
+        } else {
+            return null;
+        }
+        return newSpan(traceId, parentSpanId, name, new LinkedHashMap<>());
+    }
+
+    /**
+     * Wraps a call in a child span of the span in the subscriber context, if there is one.
+     *
+     * @param name the name of the span
+     * @param call the call
+     * @param attributes alternating attribute names and values
+     * @return a Mono of the result of the call
+     */
+    public <T> Mono<T> trace(String name, Mono<T> call, String... attributes) {
+        return Mono.deferContextual(context -> {
+            Span parent = context.getOrDefault(SPAN_CONTEXT_KEY, null);
+            if (parent == null) {
+                return call;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i + 1 < attributes.length; i += 2) {
+                values.put(attributes[i], attributes[i + 1]);
+            }
+            Span span = newSpan(parent.getTraceId(), parent.getSpanId(), name, values);
+            return call
+                    .doOnSuccess(value -> end(span, null))
+                    .doOnError(ex -> end(span, describe(ex)))
+                    .doOnCancel(() -> end(span, "cancelled"))
+                    .contextWrite(Context.of(SPAN_CONTEXT_KEY, span));
+        });
+    }
+
+    /**
+     * Ends a span and queues it for export. Spans are only ended once.
+     *
+     * @param span the span
+     * @param error a description of the failure, or null if the operation succeeded
+     */
+    public void end(Span span, String error) {
+        synchronized (span) {
+            if (span.getDurationMicros() != 0) {
+                return;
+            }
+            span.setDurationMicros(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - span.getStartNanos())));
+            span.setError(error);
+        }
+        Sinks.EmitResult result = finished.tryEmitNext(span);
+        while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            // Another thread is ending a span at the same time, retry until it is done
+            Thread.onSpinWait();
+            result = finished.tryEmitNext(span);
+        }
+        if (result.isFailure()) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @return the W3C `traceparent` header identifying the span
+     */
+    public static String traceparent(Span span) {
+        return "00-" + span.getTraceId() + "-" + span.getSpanId() + "-01";
+    }
+
+    private static Span newSpan(String traceId, String parentSpanId, String name, Map<String, String> attributes) {
+        long epochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return new Span(traceId, randomId(8), parentSpanId, name, epochMicros, 0, attributes, null, System.nanoTime());
+    }
+
+    private static String randomId(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HEX.formatHex(id);
+    }
+
+    private static String describe(Throwable ex) {
+        return ex.getClass().getSimpleName() + (ex.getMessage() == null ? "" : ": " + ex.getMessage());
+    }
+}
@@ -0,0 +1,351 @@
+package com.exercise.github.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs every upstream GitHub call in a priority lane, bounding how many calls are in flight at once.
+ * <p>
+ * Calls run in the {@link Lane#INTERACTIVE} lane unless the Reactor context names another one with
+ * {@link #LANE_CONTEXT_KEY}. Each lane has its own concurrency limit within `github.upstream.max-concurrent`, and a
+ * free slot always goes to queued interactive calls first, so user-facing requests overtake queued cache refreshes
+ * and bulk jobs. Calls whose caller cancelled are removed from the queue at once, and calls whose deadline passed
+ * while queued are dropped when they reach the head of the queue, so no upstream call is spent on a dead request.
+ * The deadline is taken from {@link #DEADLINE_CONTEXT_KEY}, or else from the timeout of the lane. Blocking clients
+ * run their calls through {@link #call(Lane, Instant, Supplier)} instead, which shares the same lanes and limit.
+ * <p>
+ * With `github.upstream.adaptive.enabled`, the number of calls in flight is bounded by an
+ * {@link AdaptiveConcurrencyLimit} instead, fed with the round-trip time of every call and with the 403 and 429
+ * responses GitHub sends when it is overloaded; `github.upstream.max-concurrent` is then its upper bound. The
+ * background lane's share shrinks with the limit, and never covers the whole limit, so that background work cannot
+ * hold every slot while GitHub is degraded.
+ */
+@Component
+public class UpstreamExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamExecutor.class);
+    public static final String LANE_CONTEXT_KEY = "github.upstream.lane";
+    public static final String DEADLINE_CONTEXT_KEY = "github.upstream.deadline";
+
+    /**
+     * The priority lanes, in the order in which free slots are granted.
+     */
+    public enum Lane {
+        INTERACTIVE, BACKGROUND
+    }
+
+    @Value("${github.upstream.max-concurrent:32}")
+    private int maxConcurrent = 32;
+
+    @Value("${github.upstream.adaptive.enabled:true}")
+    private boolean adaptive = true;
+
+    @Value("${github.upstream.adaptive.initial-limit:16}")
+    private int adaptiveInitialLimit = 16;
+
+    @Value("${github.upstream.adaptive.min-limit:4}")
+    private int adaptiveMinLimit = 4;
+
+    @Value("${github.upstream.adaptive.tolerance:1.5}")
+    private double adaptiveTolerance = 1.5; // How much slower than the fastest round trips calls may get
+
+    @Value("${github.upstream.adaptive.backoff-ratio:0.5}")
+    private double adaptiveBackoffRatio = 0.5; // Applied to the limit on a 403 or 429
+
+    @Value("${github.upstream.adaptive.smoothing:0.5}")
+    private double adaptiveSmoothing = 0.5;
+
+    @Value("${github.upstream.adaptive.probe-interval:100}")
+    private int adaptiveProbeInterval = 100; // Windows between two measurements of the unloaded round trip
+
+    @Value("${github.upstream.interactive.max-concurrent:32}")
+    private int interactiveMaxConcurrent = 32;
+
+    @Value("${github.upstream.interactive.timeout:10s}")
+    private Duration interactiveTimeout = Duration.ofSeconds(10);
+
+    @Value("${github.upstream.background.max-concurrent:8}")
+    private int backgroundMaxConcurrent = 8;
+
+    @Value("${github.upstream.background.timeout:2m}")
+    private Duration backgroundTimeout = Duration.ofMinutes(2);
+
+    private final MeterRegistry meterRegistry;
+
+    // Guarded by this
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private int running;
+    private AdaptiveConcurrencyLimit limit; // Null if the limit is fixed
+
+    public UpstreamExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates the lanes and the adaptive limit, and registers their metrics.
+     */
+    @PostConstruct
+    public void start() {
+        if (adaptive) {
+            int minLimit = Math.min(adaptiveMinLimit, maxConcurrent);
+            limit = new AdaptiveConcurrencyLimit(Math.max(minLimit, Math.min(adaptiveInitialLimit, maxConcurrent)),
+                    minLimit, maxConcurrent, adaptiveBackoffRatio, adaptiveTolerance, adaptiveSmoothing, adaptiveProbeInterval);
+        }
+        lanes.put(Lane.INTERACTIVE, new LaneState(Lane.INTERACTIVE, interactiveMaxConcurrent, interactiveTimeout));
+        lanes.put(Lane.BACKGROUND, new LaneState(Lane.BACKGROUND, backgroundMaxConcurrent, backgroundTimeout));
+        Gauge.builder("github.upstream.limit", this::limit).register(meterRegistry);
+        logger.info("Upstream lanes: {} {} calls at once, {} interactive, {} background",
+                adaptive ? "adaptive, at most" : "fixed", maxConcurrent, interactiveMaxConcurrent, backgroundMaxConcurrent);
+    }
+
+    /**
+     * Subscribes to the upstream call once its lane is granted a slot, and frees the slot when the call terminates
+     * or is cancelled.
+     *
+     * @param call the upstream call
+     * @return a Mono of the result of the call, failing with {@link TimeoutException} if the deadline passed while
+     * the call was queued
+     */
+    public <T> Mono<T> submit(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Lane lane = context.getOrDefault(LANE_CONTEXT_KEY, Lane.INTERACTIVE);
+            Instant deadline = context.getOrDefault(DEADLINE_CONTEXT_KEY, null);
+            return Mono.usingWhen(acquire(lane, deadline), slot -> call,
+                    slot -> Mono.fromRunnable(() -> slot.finish(null)),
+                    (slot, ex) -> Mono.fromRunnable(() -> slot.finish(ex)),
+                    slot -> Mono.fromRunnable(slot::release));
+        });
+    }
+
+    /**
+     * Runs a blocking upstream call once its lane is granted a slot, waiting for the slot on the calling thread, and
+     * frees the slot when the call returns or throws. Meant for virtual threads.
+     *
+     * @param lane the lane of the call
+     * @param deadline the deadline of the caller, or null for the timeout of the lane
+     * @param call the upstream call
+     * @return the result of the call
+     * @throws TimeoutException if the deadline passed while the call was queued
+     * @throws InterruptedException if the calling thread was interrupted while queued; the call is then dequeued
+     */
+    public <T> T call(Lane lane, Instant deadline, Supplier<T> call) throws InterruptedException, TimeoutException {
+        CompletableFuture<Slot> granted = acquire(lane, deadline).toFuture();
+        Slot slot;
+        try {
+            slot = granted.get();
+        } catch (InterruptedException ex) {
+            if (!granted.cancel(true) && !granted.isCompletedExceptionally()) {
+                granted.join().release(); // granted just before the interrupt, hand the slot on
+            }
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof TimeoutException timeout) {
+                throw timeout;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+
+        Throwable failure = null;
+        try {
+            return call.get();
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            slot.finish(failure);
+        }
+    }
+
+    /**
+     * @return the number of calls currently allowed in flight across all lanes
+     */
+    public int limit() {
+        return limit == null ? maxConcurrent : limit.current();
+    }
+
+    /**
+     * @return the number of calls waiting in the lane
+     */
+    public synchronized int queued(Lane lane) {
+        return lanes.get(lane).queue.size();
+    }
+
+    /**
+     * @return the number of calls of the lane in flight
+     */
+    public synchronized int running(Lane lane) {
+        return lanes.get(lane).running;
+    }
+
+    private Mono<Slot> acquire(Lane lane, Instant deadline) {
+        return Mono.create(sink -> {
+            LaneState state;
+            Slot slot;
+            synchronized (this) {
+                state = lanes.get(lane);
+                slot = new Slot(state, deadline != null ? deadline : Instant.now().plus(state.timeout), sink);
+                state.queue.add(slot);
+            }
+            sink.onCancel(slot::cancel);
+            dispatch();
+        });
+    }
+
+    /**
+     * Grants free slots lane by lane, dropping calls whose deadline passed. The sinks are completed outside the
+     * lock, since completing them starts the calls.
+     */
+    private void dispatch() {
+        List<Slot> granted = new ArrayList<>();
+        List<Slot> expired = new ArrayList<>();
+        Instant now = Instant.now();
+        int allowed = limit();
+        synchronized (this) {
+            for (LaneState lane : lanes.values()) {
+                int laneLimit = lane.limit(allowed);
+                while (running < allowed && lane.running < laneLimit && !lane.queue.isEmpty()) {
+                    Slot slot = lane.queue.poll();
+                    if (slot.deadline.isBefore(now)) {
+                        slot.state = State.DONE;
+                        expired.add(slot);
+                        continue;
+                    }
+                    slot.state = State.RUNNING;
+                    slot.startedAt = System.nanoTime();
+                    lane.running++;
+                    running++;
+                    granted.add(slot);
+                }
+            }
+        }
+        for (Slot slot : expired) {
+            slot.lane.expired.increment();
+            slot.sink.error(new TimeoutException("Deadline passed while waiting for an upstream " + slot.lane.name + " slot"));
+        }
+        granted.forEach(slot -> slot.sink.success(slot));
+    }
+
+    private enum State {
+        QUEUED, RUNNING, DONE
+    }
+
+    private final class LaneState {
+        private final Lane lane;
+        private final String name;
+        private final int maxConcurrent;
+        private final Duration timeout;
+        private final Deque<Slot> queue = new ArrayDeque<>();
+        private final Counter expired;
+        private final Counter cancelled;
+        private int running;
+
+        private LaneState(Lane lane, int maxConcurrent, Duration timeout) {
+            this.lane = lane;
+            this.name = lane.name().toLowerCase(Locale.ROOT);
+            this.maxConcurrent = maxConcurrent;
+            this.timeout = timeout;
+            this.expired = meterRegistry.counter("github.upstream.dropped", "lane", name, "reason", "deadline");
+            this.cancelled = meterRegistry.counter("github.upstream.dropped", "lane", name, "reason", "cancelled");
+            Gauge.builder("github.upstream.queued", () -> queued(lane)).tag("lane", name).register(meterRegistry);
+            Gauge.builder("github.upstream.running", () -> running(lane)).tag("lane", name).register(meterRegistry);
+        }
+
+        /**
+         * @return the calls of the lane allowed in flight when `allowed` calls are allowed across all lanes; the
+         * background lane gets its configured share of the current limit, leaving at least one slot to interactive
+         * calls
+         */
+        private int limit(int allowed) {
+            if (lane == Lane.INTERACTIVE) {
+                return maxConcurrent;
+            }
+            int share = (int) ((long) maxConcurrent * allowed / UpstreamExecutor.this.maxConcurrent);
+            return Math.max(1, Math.min(share, allowed - 1));
+        }
+    }
+
+    private final class Slot {
+        private final LaneState lane;
+        private final Instant deadline;
+        private final MonoSink<Slot> sink;
+        private State state = State.QUEUED;
+        private long startedAt;
+
+        private Slot(LaneState lane, Instant deadline, MonoSink<Slot> sink) {
+            this.lane = lane;
+            this.deadline = deadline;
+            this.sink = sink;
+        }
+
+        private void cancel() {
+            synchronized (UpstreamExecutor.this) {
+                if (state == State.QUEUED) {
+                    lane.queue.remove(this);
+                    state = State.DONE;
+                    lane.cancelled.increment();
+                    return;
+                }
+            }
+            release(); // granted just before the cancellation, hand the slot on
+        }
+
+        /**
+         * Feeds the outcome of the call to the adaptive limit, then frees the slot. Only responses are sampled,
+         * connection failures and local rejections say nothing about the round trip.
+         */
+        private void finish(Throwable error) {
+            if (limit != null) {
+                HttpStatusCode status = error instanceof WebClientResponseException ex ? ex.getStatusCode()
+                        : error instanceof RestClientResponseException ex ? ex.getStatusCode() : null;
+                if (status != null && (status.isSameCodeAs(HttpStatus.FORBIDDEN) || status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS))) {
+                    limit.onOverload();
+                } else if (error == null || status != null) {
+                    int inFlight;
+                    synchronized (UpstreamExecutor.this) {
+                        inFlight = running;
+                    }
+                    limit.onSample(System.nanoTime() - startedAt, inFlight);
+                }
+            }
+            release();
+        }
+
+        private void release() {
+            synchronized (UpstreamExecutor.this) {
+                if (state != State.RUNNING) {
+                    return;
+                }
+                state = State.DONE;
+                lane.running--;
+                running--;
+            }
+            dispatch();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.models.*;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A blocking alternative to the Reactor pipeline in {@link GithubService}, selected with `github.engine=virtual-threads`.
+ * <p>
+ * Every listing runs on its own virtual thread and forks one virtual thread per branch lookup. The lookups of a
+ * listing are scoped to a per-listing executor that is closed before the listing returns, so no lookup outlives
+ * its request. Lookups are collected in the order they complete, so the first lookup to fail cancels the remaining
+ * ones at once, even while earlier repositories of the listing are still being looked up. All calls share one
+ * blocking HTTP client and its connection pool. Each call, the listing and every branch lookup, takes its own slot
+ * of the {@link UpstreamExecutor} in the lane of the request, as the calls of the Reactor pipeline do.
+ */
+@Component
+@ConditionalOnProperty(name = "github.engine", havingValue = "virtual-threads")
+@RequiredArgsConstructor
+public class VirtualThreadGithubClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadGithubClient.class);
+    private static final ParameterizedTypeReference<List<GithubRepoResponse>> REPOSITORIES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Branch>> BRANCHES = new ParameterizedTypeReference<>() {
+    };
+
+    @Value("${github.api.branches.uri}")
+    private String branchesUri;
+
+    @Value("${github.api.repos.uri}")
+    private String reposUri;
+
+    private final RestClient githubRestClient; // Blocking client backed by the shared JDK HttpClient
+
+    @Autowired(required = false)
+    private UpstreamExecutor upstreamExecutor; // Priority lanes for upstream calls
+
+    private final ExecutorService listingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Scheduler listingScheduler = Schedulers.fromExecutorService(listingExecutor, "github-virtual");
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user on a virtual thread.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return a Flux of Repository objects, failing with {@link GithubUserNotFoundException} if the user does not exist
+     */
+    public Flux<Repository> getNonForkRepositories(String username) {
+        return Mono.deferContextual(context -> {
+                    UpstreamExecutor.Lane lane = context.getOrDefault(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.INTERACTIVE);
+                    Instant deadline = context.getOrDefault(UpstreamExecutor.DEADLINE_CONTEXT_KEY, null);
+                    return Mono.fromCallable(() -> fetchNonForkRepositories(username, lane, deadline));
+                })
+                .subscribeOn(listingScheduler)
+                .flatMapIterable(Function.identity())
+                .onErrorMap(RestClientResponseException.class, ex -> mapResponseException(ex, username));
+    }
+
+    /**
+     * Retrieves the non-fork repositories of a given GitHub user, blocking the calling thread.
+     * The branches of every repository are looked up concurrently, each on its own virtual thread.
+     *
+     * @param username the GitHub username of the user whose repositories are to be retrieved
+     * @return the repositories in the order returned by GitHub
+     * @throws RestClientResponseException if GitHub responds with an error status
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the branch lookups
+     * @throws TimeoutException if the deadline of the request passed while a call was queued for an upstream slot
+     */
+    public List<Repository> fetchNonForkRepositories(String username) throws InterruptedException, TimeoutException {
+        return fetchNonForkRepositories(username, UpstreamExecutor.Lane.INTERACTIVE, null);
+    }
+
+    private List<Repository> fetchNonForkRepositories(String username, UpstreamExecutor.Lane lane, Instant deadline)
+            throws InterruptedException, TimeoutException {
+        logger.info("Retrieving repositories for user: {}", username);
+
+        List<GithubRepoResponse> repos = upstream(lane, deadline, () -> githubRestClient.get()
+                .uri(reposUri, username)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(REPOSITORIES));
+
+        if (repos == null || repos.isEmpty()) {
+            return List.of();
+        }
+
+        List<GithubRepoResponse> nonForks = repos.stream().filter(repo -> !repo.isFork()).toList();
+        try (ExecutorService lookups = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Repository> completion = new ExecutorCompletionService<>(lookups);
+            Map<Future<Repository>, Integer> positions = new HashMap<>();
+            for (int i = 0; i < nonForks.size(); i++) {
+                GithubRepoResponse repo = nonForks.get(i);
+                positions.put(completion.submit(() -> upstream(lane, deadline, () -> fetchRepositoryWithBranches(repo))), i);
+            }
+
+            Repository[] repositories = new Repository[nonForks.size()];
+            for (int i = 0; i < repositories.length; i++) {
+                Future<Repository> lookup = next(completion, lookups);
+                repositories[positions.get(lookup)] = lookup.resultNow();
+            }
+            return List.of(repositories);
+        }
+    }
+
+    /**
+     * Runs a blocking upstream call in a slot of the {@link UpstreamExecutor} when it is present.
+     */
+    private <T> T upstream(UpstreamExecutor.Lane lane, Instant deadline, Supplier<T> call)
+            throws InterruptedException, TimeoutException {
+        return upstreamExecutor == null ? call.get() : upstreamExecutor.call(lane, deadline, call);
+    }
+
+    /**
+     * Retrieves the branches of a repository, blocking the calling thread.
+     *
+     * @param repo the repository whose branches are to be retrieved
+     * @return the repository with its branches
+     */
+    private Repository fetchRepositoryWithBranches(GithubRepoResponse repo) {
+        String owner = repo.getOwner().getLogin();
+        logger.debug("Retrieving branches for repository: {}/{}", owner, repo.getName()); // Traced requests get a span for the whole listing
+
+        List<Branch> branches = githubRestClient.get()
+                .uri(branchesUri, owner, repo.getName())
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .body(BRANCHES);
+
+        return new Repository(repo.getName(), owner, branches == null ? List.of() : branches.stream()
+                .map(branch -> new Branch(branch.getName(), new Commit(branch.getCommit().getSha())))
+                .toList());
+    }
+
+    /**
+     * Waits for the next branch lookup to complete, cancelling all other lookups of the listing if it failed.
+     */
+    private static Future<Repository> next(CompletionService<Repository> completion, ExecutorService lookups)
+            throws InterruptedException, TimeoutException {
+        try {
+            Future<Repository> lookup = completion.take();
+            lookup.get();
+            return lookup;
+        } catch (ExecutionException ex) {
+            lookups.shutdownNow();
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof TimeoutException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            lookups.shutdownNow();
+            throw ex;
+        }
+    }
+
+    private static Throwable mapResponseException(RestClientResponseException ex, String username) {
+        logger.error("Error occurred while retrieving repositories for user: {}", username, ex);
+
+        if (ex.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            return new GithubUserNotFoundException(username);
+        }
+        return new Exception("An error occurred while processing your request.");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listingScheduler.dispose();
+    }
+}
@@ -0,0 +1,71 @@
+package com.exercise.github.services;
+
+import com.exercise.github.exceptions.InvalidWebhookSignatureException;
+import io.micrometer.common.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Verifies the `X-Hub-Signature-256` header of GitHub webhook deliveries against the configured shared secret.
+ * Deliveries are rejected when no secret is configured.
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookSignatureVerifier.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SIGNATURE_PREFIX = "sha256=";
+
+    @Value("${github.webhook.secret:}")
+    private String secret; // The secret configured on the GitHub webhook
+
+    /**
+     * Checks that the signature was computed over the payload with the configured secret.
+     *
+     * @param payload the raw request body
+     * @param signature the value of the X-Hub-Signature-256 header
+     * @throws InvalidWebhookSignatureException if the signature is missing or does not match
+     */
+    public void verify(byte[] payload, String signature) {
+        if (StringUtils.isBlank(secret)) {
+            logger.warn("Rejecting webhook delivery because github.webhook.secret is not configured");
+            throw new InvalidWebhookSignatureException();
+        }
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            throw new InvalidWebhookSignatureException();
+        }
+
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = signature.getBytes(StandardCharsets.US_ASCII);
+
+        // Constant-time comparison so the signature cannot be guessed byte by byte
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new InvalidWebhookSignatureException();
+        }
+    }
+
+    /**
+     * Computes the X-Hub-Signature-256 header value for the given payload.
+     *
+     * @param payload the raw request body
+     * @return the signature in the form `sha256=<hex digest>`
+     */
+    public String sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return SIGNATURE_PREFIX + HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to compute webhook signature", ex);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.exercise.github.perf;
+
+import com.exercise.github.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the same closed-model load against the application once per upstream engine (`reactor` and
+ * `virtual-threads`) and prints throughput, latency percentiles, peak heap and peak platform threads side by side.
+ * <p>
+ * Both engines run in this JVM one after the other, against the same {@link FakeGithubServer}. Every request asks
+ * for a different user, so the repository cache never hits and each request fans out to GitHub.
+ * Configure with the system properties set by the `engineBenchmark` Gradle task.
+ */
+public class EngineBenchmark {
+
+    private static final List<String> ENGINES = List.of("reactor", "virtual-threads");
+    private static final int UPSTREAM_MAX_CONCURRENT = 100_000; // High enough that the engines set the pace, not the lanes
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("benchmark.concurrency", 1000);
+        int requests = Integer.getInteger("benchmark.requests", 20_000);
+        int repos = Integer.getInteger("benchmark.repos", 10);
+        int branches = Integer.getInteger("benchmark.branches", 5);
+        Duration latency = Duration.ofMillis(Integer.getInteger("benchmark.latencyMs", 50));
+
+        System.out.printf("Engine benchmark: %d requests, %d concurrent, %d repos x %d branches, %d ms upstream latency%n",
+                requests, concurrency, repos, branches, latency.toMillis());
+        System.out.printf("%-16s %10s %9s %9s %9s %9s %10s %9s %9s%n",
+                "engine", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "heap MB", "threads", "upstream");
+
+        try (FakeGithubServer github = new FakeGithubServer(repos, branches, latency)) {
+            for (String engine : ENGINES) {
+                Result result = run(engine, github, concurrency, requests);
+                System.out.printf("%-16s %10.0f %9.1f %9.1f %9.1f %9d %10.0f %9d %9d%n",
+                        engine, result.throughput(), result.percentile(0.50), result.percentile(0.99),
+                        result.percentile(0.999), result.errors(), result.peakHeapMb(), result.peakThreads(),
+                        result.upstreamCalls());
+            }
+        }
+    }
+
+    private static Result run(String engine, FakeGithubServer github, int concurrency, int requests) throws InterruptedException {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0",
+                        "github.api.base.url=" + github.baseUrl(),
+                        "github.engine=" + engine,
+                        "github.admission.enabled=false", // all load comes from one address
+                        "github.upstream.adaptive.enabled=false",
+                        "github.upstream.max-concurrent=" + UPSTREAM_MAX_CONCURRENT,
+                        "github.upstream.interactive.max-concurrent=" + UPSTREAM_MAX_CONCURRENT,
+                        "logging.level.com.exercise.github=WARN")
+                .run()) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            LoadDriver driver = new LoadDriver(port, engine);
+
+            // Warm up JIT, connection pools and codecs before measuring
+            driver.drive(Math.min(concurrency, 100), Math.max(requests / 10, 1000));
+
+            System.gc();
+            resetPeaks();
+            github.resetCounters();
+
+            long start = System.nanoTime();
+            LatencyRecorder latencies = driver.drive(concurrency, requests);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            return new Result(requests / seconds, latencies, driver.errors(), peakHeapMb(),
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                    github.repoListingCalls() + github.branchListingCalls());
+        }
+    }
+
+    private static void resetPeaks() {
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    private static double peakHeapMb() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum() / (1024.0 * 1024.0);
+    }
+
+    /**
+     * Sends GET /api/repositories/{username} requests from a fixed number of virtual threads, each sending its
+     * next request as soon as the previous one completed.
+     */
+    private static class LoadDriver {
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final int port;
+        private final String userPrefix;
+        private final AtomicInteger userSequence = new AtomicInteger();
+        private final LongAdder errors = new LongAdder();
+
+        LoadDriver(int port, String userPrefix) {
+            this.port = port;
+            this.userPrefix = userPrefix;
+        }
+
+        LatencyRecorder drive(int concurrency, int requests) throws InterruptedException {
+            LatencyRecorder latencies = new LatencyRecorder(requests);
+            AtomicInteger next = new AtomicInteger();
+            errors.reset();
+
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int worker = 0; worker < concurrency; worker++) {
+                    workers.submit(() -> {
+                        for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                            latencies.record(send());
+                        }
+                    });
+                }
+            }
+            return latencies;
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        private long send() {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port
+                            + "/api/repositories/" + userPrefix + "-" + userSequence.incrementAndGet()))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.increment();
+                }
+            } catch (Exception ex) {
+                errors.increment();
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    private record Result(double throughput, LatencyRecorder latencies, long errors, double peakHeapMb, int peakThreads,
+                          long upstreamCalls) {
+
+        double percentile(double quantile) {
+            return latencies.percentileMillis(quantile);
+        }
+    }
+}
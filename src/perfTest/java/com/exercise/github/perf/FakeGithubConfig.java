@@ -0,0 +1,52 @@
+package com.exercise.github.perf;
+
+import java.time.Duration;
+
+/**
+ * The behaviour of a {@link FakeGithubServer}.
+ *
+ * @param reposPerUser the number of repositories listed for every user, forks included
+ * @param forksPerUser how many of those repositories are forks
+ * @param branchesPerRepo the number of branches listed for every repository
+ * @param latency the latency added to every response
+ * @param defaultPageSize the page size used when a request has no `per_page` parameter (GitHub uses 30)
+ * @param rateLimit the number of requests allowed per rate-limit window, shared by all callers
+ * @param rateLimitWindow the length of a rate-limit window (GitHub uses one hour)
+ * @param errorRate the fraction of requests answered with a 500 or 502
+ * @param secondaryLimitRate the fraction of requests answered with a secondary rate-limit 403 and `Retry-After`
+ */
+public record FakeGithubConfig(int reposPerUser,
+                               int forksPerUser,
+                               int branchesPerRepo,
+                               LatencyDistribution latency,
+                               int defaultPageSize,
+                               long rateLimit,
+                               Duration rateLimitWindow,
+                               double errorRate,
+                               double secondaryLimitRate) {
+
+    /**
+     * Returns a configuration without forks, rate limiting or errors, and with pages large enough to hold every
+     * repository and branch.
+     */
+    public static FakeGithubConfig simple(int reposPerUser, int branchesPerRepo, Duration latency) {
+        return new FakeGithubConfig(reposPerUser, 0, branchesPerRepo, LatencyDistribution.fixed(latency),
+                Math.max(100, Math.max(reposPerUser, branchesPerRepo)), Long.MAX_VALUE, Duration.ofHours(1), 0, 0);
+    }
+
+    /**
+     * Reads the configuration from `fake-github.*` system properties, as set by the `perfTest` Gradle task.
+     */
+    public static FakeGithubConfig fromSystemProperties() {
+        return new FakeGithubConfig(
+                Integer.getInteger("fake-github.repos", 10),
+                Integer.getInteger("fake-github.forks", 2),
+                Integer.getInteger("fake-github.branches", 5),
+                LatencyDistribution.parse(System.getProperty("fake-github.latency", "lognormal:40,0.5")),
+                Integer.getInteger("fake-github.pageSize", 30),
+                Long.getLong("fake-github.rateLimit", 1_000_000),
+                Duration.parse(System.getProperty("fake-github.rateLimitWindow", "PT1H")),
+                Double.parseDouble(System.getProperty("fake-github.errorRate", "0")),
+                Double.parseDouble(System.getProperty("fake-github.secondaryLimitRate", "0")));
+    }
+}
@@ -0,0 +1,292 @@
+package com.exercise.github.perf;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An embedded stand-in for the GitHub REST API, serving generated repositories and branches for any user.
+ * <p>
+ * Behaves like GitHub where it matters for load: responses are paginated with `per_page`/`page` and `Link`
+ * headers, carry an `ETag` and answer a matching `If-None-Match` with 304, count against a shared budget that is
+ * reported in `X-RateLimit-*` headers and enforced with 403, and can be made to fail at a configurable rate.
+ * Users whose login starts with `missing-` do not exist. Every request is handled on its own virtual thread.
+ */
+public class FakeGithubServer implements AutoCloseable {
+
+    private static final Pattern REPOS_PATH = Pattern.compile("^/users/([^/]+)/repos$");
+    private static final Pattern BRANCHES_PATH = Pattern.compile("^/repos/([^/]+)/([^/]+)/branches$");
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final FakeGithubConfig config;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder repoListings = new LongAdder();
+    private final LongAdder branchListings = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private final Object rateLimitLock = new Object();
+    private long rateLimitUsed;
+    private Instant rateLimitReset;
+
+    public FakeGithubServer(int reposPerUser, int branchesPerRepo, Duration latency) throws IOException {
+        this(FakeGithubConfig.simple(reposPerUser, branchesPerRepo, latency));
+    }
+
+    public FakeGithubServer(FakeGithubConfig config) throws IOException {
+        this.config = config;
+        this.rateLimitReset = Instant.now().plus(config.rateLimitWindow());
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return the base URL to use as `github.api.base.url`
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long repoListingCalls() {
+        return repoListings.sum();
+    }
+
+    public long branchListingCalls() {
+        return branchListings.sum();
+    }
+
+    public long notModifiedResponses() {
+        return notModified.sum();
+    }
+
+    public long rateLimitedResponses() {
+        return rateLimited.sum();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    public void resetCounters() {
+        repoListings.reset();
+        branchListings.reset();
+        notModified.reset();
+        rateLimited.reset();
+        injectedErrors.reset();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            sleep(config.latency().sample());
+
+            URI uri = exchange.getRequestURI();
+            Matcher repos = REPOS_PATH.matcher(uri.getPath());
+            Matcher branches = BRANCHES_PATH.matcher(uri.getPath());
+
+            if (!repos.matches() && !branches.matches()) {
+                respond(exchange, 404, "{\"message\":\"Not Found\"}");
+                return;
+            }
+            if (repos.matches()) {
+                repoListings.increment();
+            } else {
+                branchListings.increment();
+            }
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < config.errorRate()) {
+                injectedErrors.increment();
+                respond(exchange, roll < config.errorRate() / 2 ? 500 : 502, "{\"message\":\"Server Error\"}");
+                return;
+            }
+            if (roll < config.errorRate() + config.secondaryLimitRate()) {
+                rateLimited.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 403, "{\"message\":\"You have exceeded a secondary rate limit. Please wait a few minutes before you try again.\"}");
+                return;
+            }
+
+            String owner = repos.matches() ? repos.group(1) : branches.group(1);
+            if (owner.startsWith("missing-")) {
+                respond(exchange, 404, "{\"message\":\"Not Found\"}");
+                return;
+            }
+
+            Map<String, String> query = query(uri);
+            int pageSize = Math.min(MAX_PAGE_SIZE, Integer.parseInt(query.getOrDefault("per_page", String.valueOf(config.defaultPageSize()))));
+            int page = Math.max(1, Integer.parseInt(query.getOrDefault("page", "1")));
+            int total = repos.matches() ? config.reposPerUser() : config.branchesPerRepo();
+            int from = Math.min(total, (page - 1) * pageSize);
+            int to = Math.min(total, from + pageSize);
+
+            String body = repos.matches() ? repositoriesJson(owner, from, to) : branchesJson(branches.group(2), from, to);
+            String etag = "W/\"" + Integer.toHexString(body.hashCode()) + "\"";
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", etag);
+            setLinkHeader(headers, uri, query, page, pageSize, total);
+
+            // Like GitHub, conditional requests that are answered with 304 do not count against the rate limit
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.increment();
+                setRateLimitHeaders(headers, false);
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            if (!setRateLimitHeaders(headers, true)) {
+                rateLimited.increment();
+                respond(exchange, 403, "{\"message\":\"API rate limit exceeded\"}");
+                return;
+            }
+
+            respond(exchange, 200, body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Adds the X-RateLimit-* headers, consuming one request from the budget if asked to.
+     *
+     * @return false if the budget is exhausted
+     */
+    private boolean setRateLimitHeaders(Headers headers, boolean consume) {
+        long used;
+        Instant reset;
+        boolean allowed;
+        synchronized (rateLimitLock) {
+            Instant now = Instant.now();
+            if (!now.isBefore(rateLimitReset)) {
+                rateLimitUsed = 0;
+                rateLimitReset = now.plus(config.rateLimitWindow());
+            }
+            allowed = rateLimitUsed < config.rateLimit();
+            if (consume && allowed) {
+                rateLimitUsed++;
+            }
+            used = rateLimitUsed;
+            reset = rateLimitReset;
+        }
+        headers.set("X-RateLimit-Limit", String.valueOf(config.rateLimit()));
+        headers.set("X-RateLimit-Remaining", String.valueOf(Math.max(0, config.rateLimit() - used)));
+        headers.set("X-RateLimit-Used", String.valueOf(used));
+        headers.set("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()));
+        headers.set("X-RateLimit-Resource", "core");
+        return allowed;
+    }
+
+    private void setLinkHeader(Headers headers, URI uri, Map<String, String> query, int page, int pageSize, int total) {
+        int lastPage = Math.max(1, (total + pageSize - 1) / pageSize);
+        if (lastPage == 1) {
+            return;
+        }
+        StringBuilder links = new StringBuilder();
+        if (page < lastPage) {
+            appendLink(links, uri, query, pageSize, page + 1, "next");
+            appendLink(links, uri, query, pageSize, lastPage, "last");
+        }
+        if (page > 1) {
+            appendLink(links, uri, query, pageSize, 1, "first");
+            appendLink(links, uri, query, pageSize, page - 1, "prev");
+        }
+        headers.set("Link", links.toString());
+    }
+
+    private void appendLink(StringBuilder links, URI uri, Map<String, String> query, int pageSize, int page, String rel) {
+        Map<String, String> params = new LinkedHashMap<>(query);
+        params.put("per_page", String.valueOf(pageSize));
+        params.put("page", String.valueOf(page));
+
+        StringBuilder url = new StringBuilder(baseUrl()).append(uri.getPath()).append('?');
+        params.forEach((name, value) -> url.append(name).append('=').append(value).append('&'));
+        url.setLength(url.length() - 1);
+
+        links.append(links.isEmpty() ? "" : ", ").append('<').append(url).append(">; rel=\"").append(rel).append('"');
+    }
+
+    private String repositoriesJson(String owner, int from, int to) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = from; i < to; i++) {
+            boolean fork = i >= config.reposPerUser() - config.forksPerUser();
+            json.append(i == from ? "" : ",")
+                    .append("{\"name\":\"repo-").append(i)
+                    .append("\",\"fork\":").append(fork)
+                    .append(",\"owner\":{\"login\":\"").append(owner).append("\"}}");
+        }
+        return json.append(']').toString();
+    }
+
+    private String branchesJson(String repo, int from, int to) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = from; i < to; i++) {
+            json.append(i == from ? "" : ",")
+                    .append("{\"name\":\"branch-").append(i)
+                    .append("\",\"commit\":{\"sha\":\"").append(sha(repo, i)).append("\"}}");
+        }
+        return json.append(']').toString();
+    }
+
+    static String sha(String repo, int branch) {
+        return String.format("%040x", ((long) repo.hashCode() << 16) ^ branch);
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (uri.getRawQuery() != null) {
+            for (String param : uri.getRawQuery().split("&")) {
+                String[] pair = param.split("=", 2);
+                params.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
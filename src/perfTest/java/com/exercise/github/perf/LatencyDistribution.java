@@ -0,0 +1,59 @@
+package com.exercise.github.perf;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A distribution of simulated upstream latencies, parsed from specs such as:
+ * <ul>
+ *     <li>`fixed:50` - always 50 ms</li>
+ *     <li>`uniform:20-80` - uniformly between 20 and 80 ms</li>
+ *     <li>`exponential:50` - exponentially distributed with a mean of 50 ms</li>
+ *     <li>`lognormal:50,0.5` - log-normally distributed with a median of 50 ms and a sigma of 0.5, giving a long tail</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @return the next latency to simulate
+     */
+    Duration sample();
+
+    static LatencyDistribution fixed(Duration latency) {
+        return () -> latency;
+    }
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Latency spec must look like <kind>:<parameters>, got: " + spec);
+        }
+        String parameters = parts[1];
+
+        return switch (parts[0]) {
+            case "fixed" -> fixed(Duration.ofMillis(Long.parseLong(parameters)));
+            case "uniform" -> {
+                String[] bounds = parameters.split("-", 2);
+                long min = Long.parseLong(bounds[0]);
+                long max = Long.parseLong(bounds[1]);
+                yield () -> Duration.ofMillis(ThreadLocalRandom.current().nextLong(min, max + 1));
+            }
+            case "exponential" -> {
+                double mean = Double.parseDouble(parameters);
+                yield () -> millis(-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+            }
+            case "lognormal" -> {
+                String[] values = parameters.split(",", 2);
+                double mu = Math.log(Double.parseDouble(values[0]));
+                double sigma = Double.parseDouble(values[1]);
+                yield () -> millis(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + parts[0]);
+        };
+    }
+
+    private static Duration millis(double millis) {
+        return Duration.ofNanos((long) (millis * 1_000_000));
+    }
+}
@@ -0,0 +1,44 @@
+package com.exercise.github.perf;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records request latencies from many threads into a preallocated array and reports percentiles.
+ * Samples beyond the capacity are counted but not kept.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        int index = count.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = nanos;
+        }
+    }
+
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * @param quantile the quantile between 0 and 1, e.g. 0.999 for p99.9
+     * @return the latency at the quantile in milliseconds, or 0 if nothing was recorded
+     */
+    public double percentileMillis(double quantile) {
+        int size = Math.min(count.get(), samples.length);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,174 @@
+package com.exercise.github.perf;
+
+import com.exercise.github.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Drives the application with an open-model load against a {@link FakeGithubServer} and reports throughput,
+ * latency percentiles, response statuses and upstream calls. Runs fully offline on one machine.
+ * <p>
+ * Requests are started at a fixed rate whether or not earlier ones have completed, the way independent users
+ * arrive, and latency is measured from the moment a request was scheduled to start. A slow server therefore
+ * shows up as growing latency instead of silently lowering the offered load.
+ * Configure with the `perf.*` and `fake-github.*` system properties set by the `perfTest` Gradle task.
+ * <p>
+ * All load comes from one address, so admission control is disabled unless `perf.admissionKeys` is set; then the
+ * load is spread over that many configured API keys, as many clients behind their own keys would send it.
+ */
+public class PerfTest {
+
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("perf.rps", 200);
+        Duration warmup = Duration.parse(System.getProperty("perf.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("perf.duration", "PT60S"));
+        int users = Integer.getInteger("perf.users", 1000);
+        int maxInFlight = Integer.getInteger("perf.maxInFlight", 10_000);
+        String engine = System.getProperty("perf.engine", "reactor");
+        int admissionKeys = Integer.getInteger("perf.admissionKeys", 0);
+        FakeGithubConfig config = FakeGithubConfig.fromSystemProperties();
+
+        System.out.printf("Perf test: %d req/s for %ds after %ds warm-up, %d users, engine %s%n",
+                rps, duration.toSeconds(), warmup.toSeconds(), users, engine);
+        System.out.printf("Admission: %s%n", admissionKeys == 0 ? "disabled" : "enabled, " + admissionKeys + " API keys");
+        System.out.printf("Fake GitHub: %s%n", config);
+
+        try (FakeGithubServer github = new FakeGithubServer(config);
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(DemoApplication.class)
+                     .properties("server.port=0",
+                             "github.api.base.url=" + github.baseUrl(),
+                             "github.engine=" + engine,
+                             "github.admission.enabled=" + (admissionKeys > 0),
+                             "github.admission.api-keys=" + String.join(",", apiKeys(admissionKeys)),
+                             "logging.level.com.exercise.github=WARN")
+                     .run()) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            OpenModelLoad load = new OpenModelLoad(port, users, maxInFlight, apiKeys(admissionKeys));
+
+            load.run(rps, warmup);
+            github.resetCounters();
+
+            Report report = load.run(rps, duration);
+
+            System.out.println();
+            System.out.printf("offered         %10.1f req/s%n", (double) report.sent() / duration.toSeconds());
+            System.out.printf("throughput      %10.1f req/s%n", report.completed() / report.elapsedSeconds());
+            System.out.printf("latency p50     %10.1f ms%n", report.latencies().percentileMillis(0.50));
+            System.out.printf("latency p99     %10.1f ms%n", report.latencies().percentileMillis(0.99));
+            System.out.printf("latency p99.9   %10.1f ms%n", report.latencies().percentileMillis(0.999));
+            System.out.printf("latency max     %10.1f ms%n", report.latencies().percentileMillis(1.0));
+            System.out.printf("dropped         %10d (more than %d in flight)%n", report.dropped(), maxInFlight);
+            System.out.printf("statuses        %s%n", report.statuses());
+            System.out.printf("upstream repos  %10d calls%n", github.repoListingCalls());
+            System.out.printf("upstream branch %10d calls%n", github.branchListingCalls());
+            System.out.printf("upstream 304    %10d%n", github.notModifiedResponses());
+            System.out.printf("upstream 403    %10d (rate limited)%n", github.rateLimitedResponses());
+            System.out.printf("upstream 5xx    %10d (injected)%n", github.injectedErrors());
+            System.out.printf("upstream/req    %10.2f%n",
+                    (github.repoListingCalls() + github.branchListingCalls()) / (double) Math.max(1, report.completed()));
+        }
+    }
+
+    private static List<String> apiKeys(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "perf-key-" + i).toList();
+    }
+
+    /**
+     * Starts requests at a fixed rate, each on its own virtual thread.
+     */
+    private static class OpenModelLoad {
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        private final int port;
+        private final int users;
+        private final int maxInFlight;
+        private final List<String> apiKeys;
+
+        OpenModelLoad(int port, int users, int maxInFlight, List<String> apiKeys) {
+            this.port = port;
+            this.users = users;
+            this.maxInFlight = maxInFlight;
+            this.apiKeys = apiKeys;
+        }
+
+        Report run(int rps, Duration duration) {
+            long intervalNanos = 1_000_000_000L / rps;
+            long total = duration.toSeconds() * rps;
+            LatencyRecorder latencies = new LatencyRecorder((int) Math.min(Integer.MAX_VALUE, total));
+            Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+            AtomicInteger inFlight = new AtomicInteger();
+            LongAdder dropped = new LongAdder();
+
+            long start = System.nanoTime();
+            try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long i = 0; i < total; i++) {
+                    long scheduled = start + i * intervalNanos;
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (inFlight.incrementAndGet() > maxInFlight) {
+                        inFlight.decrementAndGet();
+                        dropped.increment();
+                        continue;
+                    }
+                    requests.submit(() -> {
+                        try {
+                            int status = send();
+                            statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+                            latencies.record(System.nanoTime() - scheduled);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            return new Report(total, latencies.count(), dropped.sum(), elapsedSeconds, latencies, statusCounts);
+        }
+
+        /**
+         * @return the response status, or 0 if the request failed without a response
+         */
+        private int send() {
+            String username = "user-" + ThreadLocalRandom.current().nextInt(users);
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/repositories/" + username))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(30));
+            if (!apiKeys.isEmpty()) {
+                request.header("X-API-Key", apiKeys.get(ThreadLocalRandom.current().nextInt(apiKeys.size())));
+            }
+            try {
+                return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception ex) {
+                return 0;
+            }
+        }
+    }
+
+    private record Report(long sent, long completed, long dropped, double elapsedSeconds, LatencyRecorder latencies,
+                          Map<Integer, Long> statuses) {
+    }
+}
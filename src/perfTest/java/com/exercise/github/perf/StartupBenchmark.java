@@ -0,0 +1,99 @@
+package com.exercise.github.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Starts the application repeatedly in fresh JVMs, once from the boot jar and once from the fast-startup layout
+ * (AOT-processed, with an AppCDS archive), and prints how long each took until its readiness probe reported UP.
+ * <p>
+ * Readiness flips after the warm-up, so the times include it. Runs of the two modes alternate, so that a change in
+ * the load of the machine affects both alike. Configure with the system properties set by the `startupBenchmark`
+ * Gradle task.
+ */
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 10);
+        String java = System.getProperty("startup.java");
+        File bootJar = new File(System.getProperty("startup.bootJar"));
+        File fastDir = new File(System.getProperty("startup.fastDir"));
+
+        List<Mode> modes = List.of(
+                new Mode("boot jar", bootJar.getParentFile(), List.of(java, "-jar", bootJar.getName())),
+                new Mode("aot + appcds", fastDir, List.of(java, "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true",
+                        "-jar", "app.jar")));
+
+        System.out.printf("Startup benchmark: %d runs per mode, time until /actuator/health/readiness is UP%n", runs);
+        List<List<Long>> times = new ArrayList<>();
+        modes.forEach(mode -> times.add(new ArrayList<>()));
+        for (int run = 0; run < runs; run++) {
+            for (int i = 0; i < modes.size(); i++) {
+                times.get(i).add(startupMillis(modes.get(i)));
+            }
+        }
+
+        System.out.printf("%-16s %9s %9s %9s%n", "mode", "min ms", "p50 ms", "max ms");
+        for (int i = 0; i < modes.size(); i++) {
+            List<Long> sorted = new ArrayList<>(times.get(i));
+            Collections.sort(sorted);
+            System.out.printf("%-16s %9d %9d %9d%n", modes.get(i).name(), sorted.get(0), sorted.get(sorted.size() / 2),
+                    sorted.get(sorted.size() - 1));
+        }
+    }
+
+    private static long startupMillis(Mode mode) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(mode.command());
+        command.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(mode.directory())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (ConnectException ex) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.name() + " was not ready within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private record Mode(String name, File directory, List<String> command) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.exercise.github.controller;
+
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.GithubService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"github.admission.enabled=true", "github.admission.rate=0.01", "github.admission.burst=2",
+                "github.admission.api-keys=first-key,second-key,third-key:2,fourth-key",
+                "management.endpoints.web.exposure.include=health,clients"})
+class AdmissionIntegrationTests {
+
+    @MockBean
+    private GithubService githubService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    String username = "username";
+
+    @BeforeEach
+    void setUp() {
+        given(githubService.getNonForkRepositories(anyString()))
+                .willAnswer(invocation -> Flux.just(new Repository("repo1", invocation.getArgument(0), List.of())));
+    }
+
+    @Test
+    void testRequestsBeyondBurstAreRejectedWithRetryAfter() {
+        request("first-key").expectStatus().isOk();
+        request("first-key").expectStatus().isOk();
+
+        request("first-key")
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void testClientsHaveSeparateWeightedBuckets() {
+        request("second-key").expectStatus().isOk();
+        request("second-key").expectStatus().isOk();
+        request("second-key").expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        for (int i = 0; i < 4; i++) {
+            request("third-key").expectStatus().isOk();
+        }
+    }
+
+    @Test
+    void testClientUsageIsExposed() {
+        request("fourth-key").expectStatus().isOk();
+
+        webTestClient.get().uri("/actuator/clients")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[*].client").value(hasItem("key:four****"));
+    }
+
+    private WebTestClient.ResponseSpec request(String apiKey) {
+        return webTestClient.get().uri("/api/repositories/{username}", username)
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-API-Key", apiKey)
+                .exchange();
+    }
+}
@@ -7,6 +7,8 @@ import com.exercise.github.exceptions.models.ErrorResponse;
 import com.exercise.github.exceptions.GithubUserNotFoundException;
 import com.exercise.github.models.Repository;
 import com.exercise.github.services.GithubService;
+import com.exercise.github.services.UpstreamExecutor;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -21,6 +23,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -46,7 +49,7 @@ class GithubControllerTest {
         doReturn(Flux.fromIterable(expectedRepositories)).when(githubService).getNonForkRepositories(username);
 
         // when
-        Flux<Repository> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE);
+        Flux<Repository> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE, null, null);
 
         // then
         StepVerifier.create(result)
@@ -54,6 +57,28 @@ class GithubControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getNonForkRepositories_PutsRequestDeadlineInContext() {
+        // given
+        String username = "existinguser";
+        List<Instant> deadlines = new ArrayList<>();
+        doReturn(Flux.deferContextual(context -> {
+            deadlines.add(context.get(UpstreamExecutor.DEADLINE_CONTEXT_KEY));
+            return Flux.just(new Repository("repo1", username, Collections.emptyList()));
+        })).when(githubService).getNonForkRepositories(username);
+        Instant before = Instant.now();
+
+        // when
+        Flux<Repository> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE, null, null);
+
+        // then
+        StepVerifier.create(result)
+                .expectNextCount(1)
+                .verifyComplete();
+        Assertions.assertFalse(deadlines.get(0).isBefore(before.plusSeconds(10)));
+        Assertions.assertTrue(deadlines.get(0).isBefore(Instant.now().plusSeconds(11)));
+    }
+
     @Test
     void getNonForkRepositories_WithNonExistingUser_ReturnsNotFound() {
         // given
@@ -61,7 +86,7 @@ class GithubControllerTest {
         doReturn(Flux.empty()).when(githubService).getNonForkRepositories(username);
 
         // when
-        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE)
+        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE, null, null)
                 .then(Mono.error(new GithubUserNotFoundException(username)))
                 .onErrorResume(GithubUserNotFoundException.class, ex -> Mono.just(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage())));
 
@@ -82,7 +107,7 @@ class GithubControllerTest {
         String username = "existinguser";
 
         // when
-        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_XML_VALUE)
+        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_XML_VALUE, null, null)
                 .then(Mono.empty())
                 .onErrorResume(MediaTypeNotSupportedException.class, ex -> Mono.just(new ErrorResponse(HttpStatus.NOT_ACCEPTABLE.value(), ex.getMessage())));
 
@@ -113,7 +138,7 @@ class GithubControllerTest {
         doReturn(Flux.error(new RuntimeException("An error occurred while processing your request."))).when(githubService).getNonForkRepositories(username);
 
         // when
-        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE)
+        Mono<Object> result = githubController.getNonForkRepositories(username, MediaType.APPLICATION_JSON_VALUE, null, null)
                 .collectList()
                 .onErrorResume(GithubUserNotFoundException.class, ex -> Mono.just(new ArrayList<>()))
                 .flatMapMany(Flux::fromIterable)
@@ -0,0 +1,107 @@
+package com.exercise.github.controller;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.GithubService;
+import com.exercise.github.services.RepositoryCache;
+import com.exercise.github.services.WebhookSignatureVerifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.exercise.github.exceptions.InvalidWebhookSignatureException.INVALID_SIGNATURE_ERROR_MESSAGE;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"github.webhook.secret=test-secret", "github.webhook.batch.window=10ms"})
+class GithubWebhookControllerIntegrationTests {
+
+    @MockBean
+    private GithubService githubService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private WebhookSignatureVerifier signatureVerifier;
+
+    @Autowired
+    private RepositoryCache repositoryCache;
+
+    String owner = "octocat";
+    String repo = "public-repo";
+
+    @Test
+    void testReceiveWebhookAppliesRecordedPush() throws InterruptedException {
+        repositoryCache.put(owner, List.of(new Repository(repo, owner,
+                List.of(new Branch("main", new Commit("1111111111111111111111111111111111111111"))))));
+        byte[] payload = payload("push-main-1.json");
+
+        webTestClient.post().uri("/api/webhooks/github")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-GitHub-Event", "push")
+                .header("X-GitHub-Delivery", "72d3162e-cc78-11e3-81ab-4c9367dc0958")
+                .header("X-Hub-Signature-256", signatureVerifier.sign(payload))
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isAccepted();
+
+        // Deliveries are applied asynchronously in batches
+        String sha = null;
+        for (int attempt = 0; attempt < 50 && !"2222222222222222222222222222222222222222".equals(sha); attempt++) {
+            Thread.sleep(100);
+            sha = repositoryCache.getRepository(owner, repo).orElseThrow().getBranches().get(0).getCommit().getSha();
+        }
+        Assertions.assertEquals("2222222222222222222222222222222222222222", sha);
+    }
+
+    @Test
+    void testReceiveWebhookInvalidSignature() {
+        webTestClient.post().uri("/api/webhooks/github")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-GitHub-Event", "push")
+                .header("X-GitHub-Delivery", "72d3162e-cc78-11e3-81ab-4c9367dc0959")
+                .header("X-Hub-Signature-256", "sha256=0000")
+                .bodyValue(payload("push-main-1.json"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(HttpStatus.UNAUTHORIZED.value())
+                .jsonPath("$.message").isEqualTo(INVALID_SIGNATURE_ERROR_MESSAGE);
+    }
+
+    @Test
+    void testReceiveWebhookUnsupportedEventIsAccepted() {
+        byte[] payload = "{\"zen\":\"Design for failure.\"}".getBytes();
+
+        webTestClient.post().uri("/api/webhooks/github")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-GitHub-Event", "issues")
+                .header("X-GitHub-Delivery", "72d3162e-cc78-11e3-81ab-4c9367dc0960")
+                .header("X-Hub-Signature-256", signatureVerifier.sign(payload))
+                .bodyValue(payload)
+                .exchange()
+                .expectStatus().isAccepted();
+    }
+
+    private static byte[] payload(String file) {
+        try (InputStream in = GithubWebhookControllerIntegrationTests.class.getResourceAsStream("/webhooks/" + file)) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
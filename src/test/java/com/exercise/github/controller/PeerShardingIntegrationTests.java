@@ -0,0 +1,216 @@
+package com.exercise.github.controller;
+
+import com.exercise.github.DemoApplication;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.PeerClient;
+import com.exercise.github.services.PeerRing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Runs three peers, each in its own application context on a random port, against one stubbed GitHub API.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PeerShardingIntegrationTests {
+
+    private static final int PEERS = 3;
+    private static final String PEER_SECRET = "test-peer-secret";
+
+    private static HttpServer github;
+    private static final Map<String, AtomicInteger> listingCalls = new ConcurrentHashMap<>();
+    private static final List<String> urls = new ArrayList<>();
+    private static final List<ConfigurableApplicationContext> peers = new ArrayList<>();
+    private static PeerRing ring;
+
+    @BeforeAll
+    static void startPeers() throws IOException {
+        github = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        github.createContext("/", PeerShardingIntegrationTests::handleGithub);
+        github.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        github.start();
+
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < PEERS; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports.add(socket.getLocalPort());
+            }
+        }
+        ports.forEach(port -> urls.add("http://localhost:" + port));
+        ring = new PeerRing(urls, 100);
+
+        for (int i = 0; i < PEERS; i++) {
+            peers.add(new SpringApplicationBuilder(DemoApplication.class).properties(
+                    "server.port=" + ports.get(i),
+                    "github.api.base.url=http://localhost:" + github.getAddress().getPort(),
+                    "github.peers.enabled=true",
+                    "github.peers.self=" + urls.get(i),
+                    "github.peers.urls=" + String.join(",", urls),
+                    "github.peers.secret=" + PEER_SECRET,
+                    "github.peers.hot-key.threshold=2",
+                    "github.peers.hot-key.ttl=1m",
+                    "github.peers.timeout=2s").run());
+        }
+    }
+
+    @AfterAll
+    static void stopPeers() {
+        peers.forEach(ConfigurableApplicationContext::close);
+        github.stop(0);
+    }
+
+    @Test
+    @Order(1)
+    void testConcurrentMissesOnAllPeersFetchUserOnce() {
+        List<List<Repository>> responses = Flux.range(0, 30)
+                .flatMap(i -> WebClient.create(urls.get(i % PEERS)).get()
+                        .uri("/api/repositories/{username}", "octocat")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToFlux(Repository.class)
+                        .collectList(), 30)
+                .collectList()
+                .block();
+
+        Assertions.assertEquals(30, responses.size());
+        responses.forEach(repositories -> Assertions.assertEquals("repo-octocat", repositories.get(0).getName()));
+        Assertions.assertEquals(1, listingCalls.get("octocat").get());
+    }
+
+    @Test
+    @Order(2)
+    void testEveryUserIsFetchedByItsOwnerOnly() {
+        for (int user = 0; user < 10; user++) {
+            for (String url : urls) {
+                client(url).get().uri("/api/repositories/user-" + user)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .exchange()
+                        .expectStatus().isOk();
+            }
+        }
+
+        IntStream.range(0, 10).forEach(user -> Assertions.assertEquals(1, listingCalls.get("user-" + user).get()));
+    }
+
+    @Test
+    @Order(3)
+    void testUserNotFoundIsForwardedFromOwner() {
+        client(nonOwnerOf("missing-user")).get().uri("/api/repositories/missing-user")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @Order(4)
+    void testHotKeyIsReplicatedAndOwnerOutageFallsBackToLocalFetch() {
+        String owner = ring.ownerOf("hot-user");
+        String requester = nonOwnerOf("hot-user");
+        String orphan = IntStream.range(0, 1000).mapToObj(i -> "orphan-" + i)
+                .filter(user -> ring.ownerOf(user).equals(owner))
+                .findFirst().orElseThrow();
+        for (int i = 0; i < 2; i++) {
+            client(requester).get().uri("/api/repositories/hot-user")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        peers.get(urls.indexOf(owner)).close();
+
+        // the hot replica is served without the owner
+        client(requester).get().uri("/api/repositories/hot-user")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Repository.class).hasSize(1);
+        Assertions.assertEquals(1, listingCalls.get("hot-user").get());
+
+        // users of the stopped owner are fetched by the requester itself
+        client(requester).get().uri("/api/repositories/" + orphan)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk();
+        Assertions.assertEquals(1, listingCalls.get(orphan).get());
+    }
+
+    @Test
+    @Order(5)
+    void testInternalEndpointRejectsCallsWithoutPeerSecret() {
+        String peer = nonOwnerOf("hot-user"); // still running
+        client(peer).get().uri("/internal/peers/repositories/unauthenticated-user")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client(peer).get().uri("/internal/peers/repositories/unauthenticated-user")
+                .header(PeerClient.PEER_SECRET_HEADER, "guessed-secret")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isUnauthorized();
+        client(peer).delete().uri("/internal/peers/repositories/unauthenticated-user")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        Assertions.assertNull(listingCalls.get("unauthenticated-user"));
+    }
+
+    private static String nonOwnerOf(String username) {
+        String owner = ring.ownerOf(username);
+        return urls.stream().filter(url -> !url.equals(owner)).findFirst().orElseThrow();
+    }
+
+    private static WebTestClient client(String url) {
+        return WebTestClient.bindToServer().baseUrl(url).build();
+    }
+
+    private static void handleGithub(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String body;
+            if (path.length == 4 && path[1].equals("users")) {
+                String login = path[2];
+                listingCalls.computeIfAbsent(login, ignored -> new AtomicInteger()).incrementAndGet();
+                if (login.startsWith("missing-")) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                Thread.sleep(200); // keep concurrent misses in flight together
+                body = "[{\"name\":\"repo-" + login + "\",\"fork\":false,\"owner\":{\"login\":\"" + login + "\"}}]";
+            } else {
+                body = "[{\"name\":\"main\",\"commit\":{\"sha\":\"" + "a".repeat(40) + "\"}}]";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+}
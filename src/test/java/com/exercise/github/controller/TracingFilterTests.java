@@ -0,0 +1,69 @@
+package com.exercise.github.controller;
+
+import com.exercise.github.configuration.TracingFilter;
+import com.exercise.github.models.Span;
+import com.exercise.github.services.InMemorySpanExporter;
+import com.exercise.github.services.SpanExporter;
+import com.exercise.github.services.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TracingFilterTests {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+    private Tracer tracer;
+    private TracingFilter tracingFilter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<SpanExporter> exporters = mock(ObjectProvider.class);
+        when(exporters.getIfAvailable()).thenReturn(exporter);
+        tracer = new Tracer(exporters, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(tracer, "batchWindow", Duration.ofMillis(10));
+        tracer.start();
+        tracingFilter = new TracingFilter(tracer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracer.stop();
+    }
+
+    @Test
+    void doFilter_WithRoutedRequest_NamesRootSpanAfterRoute() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/repositories/octocat");
+
+        // when
+        tracingFilter.doFilter(request, new MockHttpServletResponse(), (routed, response) -> {
+            routed.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/repositories/{username}");
+            routed.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("username", "octocat"));
+        });
+
+        // then
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (exporter.spans().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Span root = exporter.spans().get(0);
+        Assertions.assertEquals("GET /api/repositories/{username}", root.getName());
+        Assertions.assertEquals("/api/repositories/{username}", root.getAttributes().get("http.route"));
+        Assertions.assertEquals("octocat", root.getAttributes().get("github.user"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.exercise.github.service;
+
+import com.exercise.github.services.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simulates an upstream that serves `capacity` calls at once in `latency`, and queues the calls beyond that, so the
+ * round trip grows in proportion to the excess.
+ */
+class AdaptiveConcurrencyLimitTests {
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 200, 0.5, 1.5, 0.5, 50);
+
+    @Test
+    void onSample_WithChangingUpstreamLatency_ConvergesNearCapacity() {
+        // then
+        assertConverges(simulate(50, 20), 20);
+        assertConverges(simulate(200, 5), 5); // GitHub degrades
+        assertConverges(simulate(50, 20), 20); // and recovers
+        assertConverges(simulate(20, 40), 40);
+    }
+
+    @Test
+    void onSample_WithLimitMostlyUnused_DoesNotGrow() {
+        // when
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(50_000_000L, 1);
+        }
+
+        // then
+        Assertions.assertTrue(limit.current() <= 8);
+    }
+
+    @Test
+    void onSample_WithBurstAfterIdlePeriod_KeepsLimitThroughProbes() {
+        // given
+        AdaptiveConcurrencyLimit probing = new AdaptiveConcurrencyLimit(16, 4, 32, 0.5, 1.5, 0.5, 5);
+
+        // when: many probe intervals of light load
+        for (int i = 0; i < 2000; i++) {
+            probing.onSample(50_000_000L, 2);
+        }
+
+        // then: the burst gets the limit it had before the quiet period
+        Assertions.assertEquals(16, probing.current());
+        int inFlight = probing.current();
+        for (int i = 0; i < inFlight; i++) {
+            probing.onSample(50_000_000L, inFlight);
+        }
+        Assertions.assertTrue(probing.current() >= 16, "Limit " + probing.current() + " after the first burst window");
+    }
+
+    @Test
+    void onOverload_WithRepeatedRateLimits_BacksOffToMinimum() {
+        // given
+        simulate(50, 20);
+        int converged = limit.current();
+
+        // when
+        limit.onOverload();
+
+        // then
+        Assertions.assertEquals(converged / 2, limit.current(), 1);
+        for (int i = 0; i < 10; i++) {
+            limit.onOverload();
+        }
+        Assertions.assertEquals(2, limit.current());
+    }
+
+    /**
+     * Runs 300 round trips, each completing as many calls as the limit allowed in flight.
+     *
+     * @return the limit after each round trip
+     */
+    private List<Integer> simulate(long latencyMillis, int capacity) {
+        List<Integer> limits = new ArrayList<>();
+        for (int round = 0; round < 300; round++) {
+            int inFlight = limit.current();
+            long rtt = latencyMillis * 1_000_000L * inFlight / Math.min(inFlight, capacity);
+            for (int i = 0; i < inFlight; i++) {
+                limit.onSample(rtt, inFlight);
+            }
+            limits.add(limit.current());
+        }
+        return limits;
+    }
+
+    /**
+     * Asserts that the median limit of the last 100 round trips uses the capacity without queueing much beyond it;
+     * the limit dips for one window whenever it probes for the unloaded round trip.
+     */
+    private void assertConverges(List<Integer> limits, int capacity) {
+        List<Integer> tail = new ArrayList<>(limits.subList(limits.size() - 100, limits.size()));
+        Collections.sort(tail);
+        int median = tail.get(50);
+        Assertions.assertTrue(median >= capacity && median <= capacity * 2.5,
+                "Median limit " + median + " for capacity " + capacity);
+    }
+}
@@ -0,0 +1,110 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.TooManyRequestsException;
+import com.exercise.github.models.ClientUsage;
+import com.exercise.github.services.AdmissionService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+class AdmissionServiceTests {
+
+    private AdmissionService admissionService;
+
+    String ip = "10.0.0.1";
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new AdmissionService();
+        ReflectionTestUtils.setField(admissionService, "rate", 0.01);
+        ReflectionTestUtils.setField(admissionService, "burst", 2.0);
+        ReflectionTestUtils.setField(admissionService, "apiKeys", new String[]{"partner-key:3", "basic-key"});
+        ReflectionTestUtils.setField(admissionService, "maxConcurrent", 4);
+        ReflectionTestUtils.setField(admissionService, "queueCapacity", 4);
+        ReflectionTestUtils.setField(admissionService, "maxClients", 100);
+        admissionService.start();
+    }
+
+    @Test
+    void resolveClient_WithUnknownApiKey_FallsBackToAddress() {
+        // then
+        Assertions.assertEquals("key:partner-key", admissionService.resolveClient("partner-key", ip));
+        Assertions.assertEquals("ip:" + ip, admissionService.resolveClient("made-up-key", ip));
+        Assertions.assertEquals("ip:" + ip, admissionService.resolveClient(null, ip));
+    }
+
+    @Test
+    void admit_WithEmptyBucket_ThrowsTooManyRequests() {
+        // given
+        String client = admissionService.resolveClient(null, ip);
+        admissionService.admit(client);
+        admissionService.admit(client);
+
+        // when
+        TooManyRequestsException ex = Assertions.assertThrows(TooManyRequestsException.class, () -> admissionService.admit(client));
+
+        // then
+        Assertions.assertTrue(ex.getRetryAfterSeconds() >= 1);
+        admissionService.admit(admissionService.resolveClient(null, "10.0.0.2")); // other clients are unaffected
+    }
+
+    @Test
+    void admit_WithWeightedApiKey_AllowsLargerBurst() {
+        // given
+        String client = admissionService.resolveClient("partner-key", ip);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            admissionService.admit(client);
+        }
+
+        // then
+        Assertions.assertThrows(TooManyRequestsException.class, () -> admissionService.admit(client));
+    }
+
+    @Test
+    void usage_WithAdmittedAndRejectedRequests_ReportsMaskedClients() {
+        // given
+        String client = admissionService.resolveClient("basic-key", ip);
+        admissionService.admit(client);
+        admissionService.admit(client);
+        Assertions.assertThrows(TooManyRequestsException.class, () -> admissionService.admit(client));
+
+        // when
+        List<ClientUsage> usage = admissionService.usage();
+
+        // then
+        Assertions.assertEquals(1, usage.size());
+        Assertions.assertEquals("key:basi****", usage.get(0).getClient());
+        Assertions.assertEquals(2, usage.get(0).getAdmitted());
+        Assertions.assertEquals(1, usage.get(0).getRejected());
+    }
+
+    @Test
+    void schedule_WithoutClientInContext_RunsWorkDirectly() {
+        // when
+        Mono<String> result = admissionService.schedule(Mono.just("refresh"));
+
+        // then
+        StepVerifier.create(result)
+                .expectNext("refresh")
+                .verifyComplete();
+    }
+
+    @Test
+    void schedule_WithClientInContext_RunsWorkInFairQueue() {
+        // when
+        Mono<String> result = admissionService.schedule(Mono.just("listing"))
+                .contextWrite(context -> context.put(AdmissionService.CLIENT_CONTEXT_KEY, "ip:" + ip));
+
+        // then
+        StepVerifier.create(result)
+                .expectNext("listing")
+                .verifyComplete();
+    }
+}
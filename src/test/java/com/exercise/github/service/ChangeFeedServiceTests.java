@@ -0,0 +1,155 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.CachedListing;
+import com.exercise.github.models.ChangeEvent;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.ChangeFeedService;
+import com.exercise.github.services.GithubService;
+import com.exercise.github.services.InMemoryRepositoryCache;
+import com.exercise.github.services.RepositoryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTests {
+
+    @Mock
+    private GithubService githubService;
+
+    private final RepositoryCache repositoryCache = new InMemoryRepositoryCache();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final Duration pollInterval = Duration.ofSeconds(30);
+    private ChangeFeedService changeFeedService;
+
+    String username = "testUser";
+    Repository repo1 = new Repository("repo1", username, List.of(new Branch("main", new Commit("sha1")), new Branch("dev", new Commit("sha2"))));
+    Repository repo1Pushed = new Repository("repo1", username, List.of(new Branch("main", new Commit("sha3")), new Branch("feature", new Commit("sha4"))));
+    Repository repo2 = new Repository("repo2", username, List.of());
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(githubService, repositoryCache, meterRegistry);
+        ReflectionTestUtils.setField(changeFeedService, "pollInterval", pollInterval);
+        ReflectionTestUtils.setField(changeFeedService, "pollScheduler", scheduler);
+        ReflectionTestUtils.setField(changeFeedService, "subscriberBuffer", 2);
+        changeFeedService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeedService.stop();
+        scheduler.dispose();
+    }
+
+    @Test
+    void diff_WithChangedListing_ReturnsRepositoryAndBranchEvents() {
+        // when
+        List<ChangeEvent> events = ChangeFeedService.diff(List.of(repo1, repo2), List.of(repo1Pushed, new Repository("repo3", username, List.of())));
+
+        // then
+        Assertions.assertEquals(List.of(
+                new ChangeEvent(ChangeEvent.Type.BRANCH_MOVED, username, "repo1", "main", "sha3", "sha1"),
+                new ChangeEvent(ChangeEvent.Type.BRANCH_CREATED, username, "repo1", "feature", "sha4", null),
+                new ChangeEvent(ChangeEvent.Type.BRANCH_DELETED, username, "repo1", "dev", null, "sha2"),
+                new ChangeEvent(ChangeEvent.Type.REPOSITORY_ADDED, username, "repo3", null, null, null),
+                new ChangeEvent(ChangeEvent.Type.REPOSITORY_REMOVED, username, "repo2", null, null, null)), events);
+    }
+
+    @Test
+    void subscribe_WithManySubscribers_SharesOnePoller() {
+        // given
+        when(githubService.pollRepositories(eq(username), any())).thenReturn(
+                Mono.just(new CachedListing(List.of(repo1), "\"etag1\"", 0)),
+                Mono.just(new CachedListing(List.of(repo1Pushed), "\"etag2\"", 0)),
+                Mono.empty());
+        List<List<ChangeEvent>> received = IntStream.range(0, 3).mapToObj(i -> (List<ChangeEvent>) new CopyOnWriteArrayList<ChangeEvent>()).toList();
+
+        // when
+        List<Disposable> subscriptions = received.stream()
+                .map(events -> changeFeedService.subscribe(username).subscribe(events::add))
+                .toList();
+        scheduler.advanceTimeBy(Duration.ZERO); // first poll, seeds the snapshot
+        scheduler.advanceTimeBy(pollInterval); // second poll, finds the push
+        scheduler.advanceTimeBy(pollInterval); // third poll, unchanged
+
+        // then
+        List<ChangeEvent> expected = ChangeFeedService.diff(List.of(repo1), List.of(repo1Pushed));
+        received.forEach(events -> Assertions.assertEquals(expected, events));
+        verify(githubService, times(1)).pollRepositories(username, null);
+        verify(githubService, times(1)).pollRepositories(username, "\"etag1\"");
+        Assertions.assertEquals(1, changeFeedService.watchedUsers());
+
+        subscriptions.forEach(Disposable::dispose);
+        Assertions.assertEquals(0, changeFeedService.watchedUsers());
+    }
+
+    @Test
+    void subscribe_WithCachedListing_StartsWithConditionalPoll() {
+        // given
+        repositoryCache.put(username, List.of(repo1), "\"cached\"");
+        when(githubService.pollRepositories(eq(username), any())).thenReturn(Mono.empty());
+
+        // when
+        Disposable subscription = changeFeedService.subscribe(username).subscribe();
+        scheduler.advanceTimeBy(Duration.ZERO);
+        subscription.dispose();
+
+        // then
+        verify(githubService, times(1)).pollRepositories(username, "\"cached\"");
+        verify(githubService, never()).pollRepositories(username, null);
+    }
+
+    @Test
+    void subscribe_WithStuckSubscriber_EvictsIt() {
+        // given
+        when(githubService.pollRepositories(eq(username), any())).thenReturn(
+                Mono.just(new CachedListing(List.of(), "\"etag1\"", 0)),
+                Mono.just(new CachedListing(List.of(repo1, repo2), "\"etag2\"", 0)),
+                Mono.empty());
+
+        // then
+        StepVerifier.create(changeFeedService.subscribe(username), 0)
+                .expectSubscription()
+                .then(() -> scheduler.advanceTimeBy(Duration.ZERO))
+                .then(() -> scheduler.advanceTimeBy(pollInterval)) // four events for a buffer of two
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        Assertions.assertEquals(1.0, meterRegistry.counter("github.feed.evicted").count());
+    }
+
+    @Test
+    void subscribe_WithUnknownUser_ReturnsError() {
+        // given
+        when(githubService.pollRepositories(eq(username), any())).thenReturn(Mono.error(new GithubUserNotFoundException(username)));
+
+        // then
+        StepVerifier.create(changeFeedService.subscribe(username))
+                .then(() -> scheduler.advanceTimeBy(Duration.ZERO))
+                .expectError(GithubUserNotFoundException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,144 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.CrawlCheckpoint;
+import com.exercise.github.models.CrawlRecord;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.CrawlJob;
+import com.exercise.github.services.CrawlWriter;
+import com.exercise.github.services.GithubService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlJobTests {
+
+    @Mock
+    private GithubService githubService;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CrawlJob crawlJob;
+
+    @TempDir
+    Path directory;
+
+    Path input;
+    Path output;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        input = directory.resolve("logins.txt");
+        output = directory.resolve("crawl");
+        Files.write(input, List.of("octocat", "", "# removed accounts", "ghost", "torvalds", "gaearon"));
+
+        crawlJob = new CrawlJob(githubService, objectMapper, applicationContext);
+        ReflectionTestUtils.setField(crawlJob, "input", input);
+        ReflectionTestUtils.setField(crawlJob, "output", output);
+        ReflectionTestUtils.setField(crawlJob, "concurrency", 2);
+        ReflectionTestUtils.setField(crawlJob, "recordsPerFile", 3);
+        ReflectionTestUtils.setField(crawlJob, "retries", 1);
+        ReflectionTestUtils.setField(crawlJob, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(crawlJob, "exit", false);
+    }
+
+    @Test
+    void crawl_WithFailingLogins_WritesEveryLoginInInputOrder() throws IOException {
+        // given
+        when(githubService.fetchUncachedRepositories(anyString()))
+                .thenAnswer(invocation -> Mono.just(repositories(invocation.getArgument(0))));
+        when(githubService.fetchUncachedRepositories("ghost")).thenReturn(Mono.error(new GithubUserNotFoundException("ghost")));
+        when(githubService.fetchUncachedRepositories("torvalds")).thenReturn(
+                Mono.error(new RateLimitExceededException(Instant.now().minusSeconds(5))),
+                Mono.just(repositories("torvalds")));
+
+        // when
+        CrawlCheckpoint checkpoint = crawlJob.crawl();
+
+        // then
+        List<CrawlRecord> records = records();
+        Assertions.assertEquals(List.of("octocat", "ghost", "torvalds", "gaearon"),
+                records.stream().map(CrawlRecord::getLogin).toList());
+        Assertions.assertEquals(repositories("octocat"), records.get(0).getRepositories());
+        Assertions.assertNull(records.get(1).getRepositories());
+        Assertions.assertTrue(records.get(1).getError().startsWith("GithubUserNotFoundException"));
+        Assertions.assertEquals(repositories("torvalds"), records.get(2).getRepositories());
+        Assertions.assertEquals(6, checkpoint.getNextLine());
+        Assertions.assertEquals(3, checkpoint.getSucceeded());
+        Assertions.assertEquals(1, checkpoint.getFailed());
+        verify(githubService, times(1)).fetchUncachedRepositories("ghost"); // not found is not retried
+    }
+
+    @Test
+    void crawl_AfterKill_ResumesAfterLastCheckpoint() throws IOException {
+        // given
+        try (CrawlWriter writer = new CrawlWriter(output, objectMapper, 3)) {
+            writer.open(input);
+            writer.write(0, new CrawlRecord("octocat", 0, repositories("octocat"), null));
+            writer.write(3, new CrawlRecord("ghost", 0, repositories("ghost"), null));
+            writer.checkpoint();
+            writer.write(4, new CrawlRecord("torvalds", 0, repositories("torvalds"), null));
+        } // killed before the next checkpoint
+        when(githubService.fetchUncachedRepositories(anyString()))
+                .thenAnswer(invocation -> Mono.just(repositories(invocation.getArgument(0))));
+
+        // when
+        CrawlCheckpoint checkpoint = crawlJob.crawl();
+
+        // then
+        Assertions.assertEquals(List.of("octocat", "ghost", "torvalds", "gaearon"),
+                records().stream().map(CrawlRecord::getLogin).toList());
+        Assertions.assertEquals(4, checkpoint.getSucceeded());
+        verify(githubService, never()).fetchUncachedRepositories("octocat");
+        verify(githubService, never()).fetchUncachedRepositories("ghost");
+    }
+
+    private List<Repository> repositories(String login) {
+        return List.of(new Repository("repo", login, List.of(new Branch("main", new Commit("sha")))));
+    }
+
+    /**
+     * @return the records of all parts, in order
+     */
+    private List<CrawlRecord> records() throws IOException {
+        List<CrawlRecord> records = new ArrayList<>();
+        for (int part = 0; Files.exists(output.resolve(String.format("part-%05d.ndjson.gz", part))); part++) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                    Files.newInputStream(output.resolve(String.format("part-%05d.ndjson.gz", part)))), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    records.add(objectMapper.readValue(line, CrawlRecord.class));
+                }
+            }
+        }
+        return records;
+    }
+}
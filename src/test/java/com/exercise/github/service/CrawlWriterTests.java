@@ -0,0 +1,124 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.CrawlCheckpoint;
+import com.exercise.github.models.CrawlRecord;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.CrawlWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class CrawlWriterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    Path input = Path.of("logins.txt");
+
+    @Test
+    void open_AfterUncheckpointedRecords_DropsThemAndResumesAfterCheckpoint() throws IOException {
+        // given
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 100)) {
+            writer.open(input);
+            writer.write(0, record("first"));
+            writer.write(2, record("second")); // line 1 was blank
+            writer.checkpoint();
+            writer.write(3, record("lost"));
+        } // killed before the next checkpoint
+
+        // when
+        CrawlCheckpoint checkpoint;
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 100)) {
+            checkpoint = writer.open(input);
+            writer.write(3, record("third"));
+            writer.checkpoint();
+        }
+
+        // then
+        Assertions.assertEquals(3, checkpoint.getNextLine());
+        Assertions.assertEquals(2, checkpoint.getSucceeded());
+        Assertions.assertEquals(List.of("first", "second", "third"), logins(directory.resolve("part-00000.ndjson.gz")));
+    }
+
+    @Test
+    void write_BeyondRecordsPerFile_RotatesParts() throws IOException {
+        // when
+        CrawlCheckpoint progress;
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 2)) {
+            writer.open(input);
+            for (int line = 0; line < 5; line++) {
+                writer.write(line, line == 3 ? new CrawlRecord("login3", 0, null, "boom") : record("login" + line));
+            }
+            writer.checkpoint();
+            progress = writer.progress();
+        }
+
+        // then
+        Assertions.assertEquals(List.of("login0", "login1"), logins(directory.resolve("part-00000.ndjson.gz")));
+        Assertions.assertEquals(List.of("login2", "login3"), logins(directory.resolve("part-00001.ndjson.gz")));
+        Assertions.assertEquals(List.of("login4"), logins(directory.resolve("part-00002.ndjson.gz")));
+        Assertions.assertEquals(new CrawlCheckpoint(input.toAbsolutePath().toString(), 5, 2,
+                Files.size(directory.resolve("part-00002.ndjson.gz")), 1, 4, 1), progress);
+        Assertions.assertEquals(progress, objectMapper.readValue(directory.resolve(CrawlWriter.CHECKPOINT_FILE).toFile(),
+                CrawlCheckpoint.class));
+    }
+
+    @Test
+    void open_WithOtherInput_Fails() throws IOException {
+        // given
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 100)) {
+            writer.open(input);
+            writer.checkpoint();
+        }
+
+        // then
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 100)) {
+            Assertions.assertThrows(IllegalStateException.class, () -> writer.open(Path.of("other-logins.txt")));
+        }
+    }
+
+    @Test
+    void open_WithPartsButNoCheckpoint_Fails() throws IOException {
+        // given
+        Files.createFile(directory.resolve("part-00000.ndjson.gz"));
+
+        // then
+        try (CrawlWriter writer = new CrawlWriter(directory, objectMapper, 100)) {
+            Assertions.assertThrows(IllegalStateException.class, () -> writer.open(input));
+        }
+    }
+
+    private CrawlRecord record(String login) {
+        return new CrawlRecord(login, 1_700_000_000_000L,
+                List.of(new Repository("repo", login, List.of(new Branch("main", new Commit("sha"))))), null);
+    }
+
+    private List<String> logins(Path part) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(part)), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(line -> {
+                        try {
+                            return objectMapper.readValue(line, CrawlRecord.class).getLogin();
+                        } catch (IOException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    })
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.TooManyRequestsException;
+import com.exercise.github.services.FairQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class FairQueueTests {
+
+    private final List<String> started = new ArrayList<>();
+    private final Map<String, Sinks.One<String>> running = new HashMap<>();
+
+    @Test
+    void schedule_WithBacklogOfHeavyClient_ServesNewClientNext() {
+        // given
+        FairQueue fairQueue = new FairQueue(1, 10);
+        for (int i = 1; i <= 5; i++) {
+            fairQueue.schedule("heavy", 1, task("h" + i)).subscribe();
+        }
+
+        // when
+        fairQueue.schedule("light", 1, task("l1")).subscribe();
+        finish("h1");
+
+        // then
+        Assertions.assertEquals(List.of("h1", "l1"), started);
+    }
+
+    @Test
+    void schedule_WithWeights_SharesSlotsInProportion() {
+        // given
+        FairQueue fairQueue = new FairQueue(1, 10);
+        fairQueue.schedule("gate", 1, task("gate")).subscribe();
+        for (int i = 1; i <= 4; i++) {
+            fairQueue.schedule("a", 1, task("a" + i)).subscribe();
+            fairQueue.schedule("b", 2, task("b" + i)).subscribe();
+        }
+
+        // when
+        finish("gate");
+        for (int i = 0; i < 5; i++) {
+            finish(started.get(started.size() - 1));
+        }
+
+        // then
+        List<String> firstSix = started.subList(1, 7);
+        Assertions.assertEquals(4, firstSix.stream().filter(name -> name.startsWith("b")).count(), firstSix.toString());
+    }
+
+    @Test
+    void schedule_WithFullQueue_ThrowsTooManyRequests() {
+        // given
+        FairQueue fairQueue = new FairQueue(1, 2);
+        for (int i = 1; i <= 3; i++) {
+            fairQueue.schedule("heavy", 1, task("h" + i)).subscribe();
+        }
+
+        // then
+        StepVerifier.create(fairQueue.schedule("heavy", 1, task("h4")))
+                .verifyError(TooManyRequestsException.class);
+        fairQueue.schedule("light", 1, task("l1")).subscribe();
+        Assertions.assertEquals(1, fairQueue.queued("light"));
+    }
+
+    @Test
+    void schedule_WithCancelledQueuedWork_NeverStartsIt() {
+        // given
+        FairQueue fairQueue = new FairQueue(1, 10);
+        fairQueue.schedule("client", 1, task("c1")).subscribe();
+        Disposable cancelled = fairQueue.schedule("client", 1, task("c2")).subscribe();
+        fairQueue.schedule("client", 1, task("c3")).subscribe();
+
+        // when
+        cancelled.dispose();
+        finish("c1");
+
+        // then
+        Assertions.assertEquals(List.of("c1", "c3"), started);
+        Assertions.assertEquals(0, fairQueue.queued("client"));
+        Assertions.assertEquals(1, fairQueue.running("client"));
+    }
+
+    private Mono<String> task(String name) {
+        return Mono.defer(() -> {
+            started.add(name);
+            Sinks.One<String> sink = Sinks.one();
+            running.put(name, sink);
+            return sink.asMono();
+        });
+    }
+
+    private void finish(String name) {
+        running.remove(name).tryEmitValue(name);
+    }
+}
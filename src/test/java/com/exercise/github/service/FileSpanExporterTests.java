@@ -0,0 +1,52 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Span;
+import com.exercise.github.services.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+class FileSpanExporterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void export_AcrossRestarts_AppendsOneJsonLinePerSpan() throws IOException {
+        // given
+        Path path = directory.resolve("traces/spans.ndjson");
+        Span listing = new Span("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", null, "GET /api/repositories/{username}",
+                1_700_000_000_000_000L, 1200, Map.of("http.status", "200"), null, 0);
+        Span branches = new Span("4bf92f3577b34da6a3ce929d0e0e4736", "b7ad6b7169203331", "00f067aa0ba902b7", "github.branches",
+                1_700_000_000_000_100L, 900, Map.of("github.repo", "octocat/hello"), "TimeoutException", 0);
+
+        // when
+        export(path, List.of(listing));
+        export(path, List.of(branches));
+
+        // then
+        List<String> lines = Files.readAllLines(path);
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertEquals(listing, objectMapper.readValue(lines.get(0), Span.class));
+        Assertions.assertEquals(branches, objectMapper.readValue(lines.get(1), Span.class));
+        Assertions.assertFalse(lines.get(0).contains("startNanos"));
+    }
+
+    private void export(Path path, List<Span> spans) throws IOException {
+        FileSpanExporter exporter = new FileSpanExporter(objectMapper);
+        ReflectionTestUtils.setField(exporter, "path", path);
+        exporter.start();
+        exporter.export(spans);
+        exporter.stop();
+    }
+}
@@ -0,0 +1,102 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.services.GitBranchSource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads branches from a local stub serving recorded ref advertisements, streamed in small chunks.
+ */
+class GitBranchSourceTests {
+
+    private static HttpServer git;
+
+    private GitBranchSource gitBranchSource;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        git = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        git.createContext("/", GitBranchSourceTests::handleInfoRefs);
+        git.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        git.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        git.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        gitBranchSource = new GitBranchSource(WebClient.builder());
+        ReflectionTestUtils.setField(gitBranchSource, "gitBaseUrl", "http://localhost:" + git.getAddress().getPort());
+        ReflectionTestUtils.setField(gitBranchSource, "infoRefsUri", "/{owner}/{repo}.git/info/refs?service=git-upload-pack");
+        gitBranchSource.start();
+    }
+
+    @Test
+    void getBranches_WithRecordedAdvertisement_ReturnsBranchHeads() {
+        // then
+        StepVerifier.create(gitBranchSource.getBranches("octocat", "hello-world").collectList())
+                .expectNext(List.of(
+                        new Branch("feature/login", new Commit("2736fab291f04e69b62d490c3c09361f5b82461a")),
+                        new Branch("main", new Commit("b28b7af69320201d1cf206ebf28373980add1451")),
+                        new Branch("release-1.0", new Commit("4e4b162c26be946bd7732ede961d88d7d03a902a"))))
+                .verifyComplete();
+    }
+
+    @Test
+    void getBranches_WithHundredsOfBranches_ReturnsThemFromOneRequest() {
+        // then
+        StepVerifier.create(gitBranchSource.getBranches("octocat", "many-branches").count())
+                .expectNext(301L)
+                .verifyComplete();
+    }
+
+    @Test
+    void getBranches_WithUnreadableRepository_ReturnsError() {
+        // then
+        StepVerifier.create(gitBranchSource.getBranches("octocat", "private-repo"))
+                .expectError(WebClientResponseException.NotFound.class)
+                .verify();
+    }
+
+    private static void handleInfoRefs(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            ClassPathResource recorded = new ClassPathResource("git/" + path[2].replace(".git", "") + ".pkt");
+            if (!"service=git-upload-pack".equals(exchange.getRequestURI().getQuery()) || !recorded.exists()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = recorded.getContentAsByteArray();
+            exchange.getResponseHeaders().add("Content-Type", "application/x-git-upload-pack-advertisement");
+            exchange.sendResponseHeaders(200, 0); // chunked, so pkt-lines arrive split across buffers
+            OutputStream body = exchange.getResponseBody();
+            for (int offset = 0; offset < bytes.length; offset += 97) {
+                body.write(bytes, offset, Math.min(97, bytes.length - offset));
+                body.flush();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -2,7 +2,12 @@ package com.exercise.github.service;
 
 import com.exercise.github.exceptions.GithubUserNotFoundException;
 import com.exercise.github.models.*;
+import com.exercise.github.services.AdmissionService;
+import com.exercise.github.services.GitBranchSource;
 import com.exercise.github.services.GithubService;
+import com.exercise.github.services.InMemoryRepositoryCache;
+import com.exercise.github.services.RepositoryCache;
+import com.exercise.github.services.UpstreamExecutor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,17 +15,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -31,6 +42,9 @@ class GithubServiceTests {
     @Mock
     private WebClient webClient;
 
+    @Spy
+    private RepositoryCache repositoryCache = new InMemoryRepositoryCache();
+
     @InjectMocks
     private GithubService githubService;
 
@@ -77,6 +91,46 @@ class GithubServiceTests {
         verify(webClient.get().uri(anyString(), anyString(), anyString()).header(anyString(), anyString()).retrieve(), times(1)).bodyToFlux((Class<Object>) any());
     }
 
+    @Test
+    void getBranches_WithGitSource_SkipsRestApi() {
+        // given
+        GitBranchSource gitBranchSource = Mockito.mock(GitBranchSource.class);
+        ReflectionTestUtils.setField(githubService, "gitBranchSource", gitBranchSource);
+        when(gitBranchSource.getBranches("owner", "repo")).thenReturn(Flux.just(githubBranch1, githubBranch2));
+
+        // when
+        Mono<List<Branch>> branchesMono = githubService.getBranches("owner", "repo");
+
+        // then
+        StepVerifier.create(branchesMono)
+                .expectNext(List.of(githubBranch1, githubBranch2))
+                .verifyComplete();
+        verifyNoInteractions(webClient);
+    }
+
+    @Test
+    void getBranches_WithGitSourceFailing_FallsBackToRestApi() {
+        // given
+        GitBranchSource gitBranchSource = Mockito.mock(GitBranchSource.class);
+        ReflectionTestUtils.setField(githubService, "gitBranchSource", gitBranchSource);
+        when(gitBranchSource.getBranches("owner", "repo"))
+                .thenReturn(Flux.error(new IllegalStateException("Malformed pkt-line length")));
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.header(anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.retrieve()).thenReturn(responseSpecBranches);
+        when(responseSpecBranches.bodyToFlux((Class<Object>) any())).thenReturn(Flux.just(githubBranch1));
+
+        // when
+        Mono<List<Branch>> branchesMono = githubService.getBranches("owner", "repo");
+
+        // then
+        StepVerifier.create(branchesMono)
+                .expectNext(List.of(githubBranch1))
+                .verifyComplete();
+        verify(requestHeadersUriSpec, times(1)).uri(branchesUri, "owner", "repo");
+    }
+
     @Test
     void getNonForkRepositoriesTest() {
         // given
@@ -84,7 +138,7 @@ class GithubServiceTests {
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
-        when(responseSpecRepo.bodyToFlux((Class<Object>) any())).thenReturn(Flux.just(githubRepoResponse1, githubRepoResponse2));
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.ok(Flux.just(githubRepoResponse1, githubRepoResponse2))));
 
         when(requestHeadersUriSpec.uri(anyString(), anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
         when(requestHeadersSpecBranches.header(anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
@@ -103,13 +157,186 @@ class GithubServiceTests {
         verify(webClient.get(), times(1)).uri(anyString(), anyString());
         verify(webClient.get().uri(anyString(), anyString()), times(1)).header(anyString(), anyString());
         verify(webClient.get().uri(anyString(), anyString()).header(anyString(), anyString()), times(1)).retrieve();
-        verify(webClient.get().uri(anyString(), anyString()).header(anyString(), anyString()).retrieve(), times(1)).bodyToFlux((Class<Object>) any());
+        verify(webClient.get().uri(anyString(), anyString()).header(anyString(), anyString()).retrieve(), times(1)).toEntityFlux((Class<Object>) any());
         verify(webClient.get(), times(2)).uri(anyString(), anyString(), anyString());
         verify(webClient.get().uri(anyString(), anyString(), anyString()), times(2)).header(anyString(), anyString());
         verify(webClient.get().uri(anyString(), anyString(), anyString()).header(anyString(), anyString()), times(2)).retrieve();
         verify(webClient.get().uri(anyString(), anyString(), anyString()).header(anyString(), anyString()).retrieve(), times(2)).bodyToFlux((Class<Object>) any());
     }
 
+    @Test
+    void getNonForkRepositories_WithCachedUser_ServesFromCache() {
+        // given
+        List<Repository> cachedRepositories = List.of(new Repository("repo1", username, Arrays.asList(githubBranch1, githubBranch2)));
+        repositoryCache.put(username, cachedRepositories);
+
+        // when
+        Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
+
+        // then
+        StepVerifier.create(repositoryFlux)
+                .expectNextSequence(cachedRepositories)
+                .verifyComplete();
+        verifyNoInteractions(webClient);
+    }
+
+    @Test
+    void getNonForkRepositories_WithExpiredListingNotModified_RenewsCachedListing() {
+        // given
+        List<Repository> cachedRepositories = List.of(new Repository("repo1", username, Arrays.asList(githubBranch1, githubBranch2)));
+        repositoryCache.put(username, cachedRepositories, "W/\"etag\"");
+        ReflectionTestUtils.setField(repositoryCache, "ttl", Duration.ofMillis(-1)); // expire the listing immediately
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+
+        // when
+        Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
+
+        // then
+        StepVerifier.create(repositoryFlux)
+                .expectNextSequence(cachedRepositories)
+                .verifyComplete();
+        verify(requestHeadersSpecRepo, times(1)).header(HttpHeaders.IF_NONE_MATCH, "W/\"etag\"");
+        verify(repositoryCache, times(2)).put(username, cachedRepositories, "W/\"etag\""); // stored above, then renewed
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    void getNonForkRepositories_WithBlockingCache_AccessesCacheOffCallerThread() {
+        // given
+        List<String> cacheThreads = new CopyOnWriteArrayList<>();
+        doReturn(true).when(repositoryCache).isBlocking();
+        doAnswer(invocation -> {
+            cacheThreads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(repositoryCache).get(anyString());
+        doAnswer(invocation -> {
+            cacheThreads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(repositoryCache).put(anyString(), any(), any());
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.ok(Flux.just(githubRepoResponse1))));
+        when(requestHeadersUriSpec.uri(anyString(), anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.header(anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.retrieve()).thenReturn(responseSpecBranches);
+        when(responseSpecBranches.bodyToFlux((Class<Object>) any())).thenReturn(Flux.just(githubBranch1));
+
+        // when
+        Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
+
+        // then
+        StepVerifier.create(repositoryFlux)
+                .expectNext(new Repository("repo1", "owner1", List.of(githubBranch1)))
+                .verifyComplete();
+        Assertions.assertEquals(3, cacheThreads.size()); // two lookups and the store
+        Assertions.assertTrue(cacheThreads.stream().allMatch(thread -> thread.startsWith("boundedElastic")), cacheThreads.toString());
+    }
+
+    @Test
+    void fetchUncachedRepositories_WithCachedUser_FetchesWithoutTouchingCache() {
+        // given
+        List<Repository> cachedRepositories = List.of(new Repository("stale", username, List.of()));
+        repositoryCache.put(username, cachedRepositories);
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.ok(Flux.just(githubRepoResponse1))));
+        when(requestHeadersUriSpec.uri(anyString(), anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.header(anyString(), anyString())).thenReturn(requestHeadersSpecBranches);
+        when(requestHeadersSpecBranches.retrieve()).thenReturn(responseSpecBranches);
+        when(responseSpecBranches.bodyToFlux((Class<Object>) any())).thenReturn(Flux.just(githubBranch1));
+
+        // when
+        Mono<List<Repository>> repositoriesMono = githubService.fetchUncachedRepositories(username);
+
+        // then
+        StepVerifier.create(repositoriesMono)
+                .expectNext(List.of(new Repository("repo1", "owner1", List.of(githubBranch1))))
+                .verifyComplete();
+        verify(repositoryCache, never()).get(anyString());
+        verify(repositoryCache, times(1)).put(anyString(), any(), any()); // only the listing stored above
+        Assertions.assertEquals(cachedRepositories, repositoryCache.get(username).orElseThrow());
+    }
+
+    @Test
+    void pollRepositories_WithListingNotModified_ReturnsEmpty() {
+        // given
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()));
+
+        // when
+        Mono<CachedListing> listingMono = githubService.pollRepositories(username, "W/\"etag\"");
+
+        // then
+        StepVerifier.create(listingMono)
+                .verifyComplete();
+        verify(requestHeadersSpecRepo, times(1)).header(HttpHeaders.IF_NONE_MATCH, "W/\"etag\"");
+        verify(repositoryCache, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    void getOwnedRepositories_WithConcurrentMissesOfTwoClients_SharesFetchWithoutClientContext() {
+        // given
+        List<String> fetchClients = new CopyOnWriteArrayList<>();
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.deferContextual(context -> {
+            fetchClients.add(context.getOrDefault(AdmissionService.CLIENT_CONTEXT_KEY, "none"));
+            return Mono.just(ResponseEntity.ok(Flux.<GithubRepoResponse>empty())).delayElement(Duration.ofMillis(100));
+        }));
+
+        // when
+        Mono<List<Repository>> first = githubService.getOwnedRepositories(username)
+                .contextWrite(Context.of(AdmissionService.CLIENT_CONTEXT_KEY, "key:first"));
+        Mono<List<Repository>> second = githubService.getOwnedRepositories(username)
+                .contextWrite(Context.of(AdmissionService.CLIENT_CONTEXT_KEY, "key:second"));
+
+        // then
+        StepVerifier.create(Mono.zip(first, second))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(webClient, times(1)).get();
+        Assertions.assertEquals(List.of("none"), fetchClients);
+    }
+
+    @Test
+    void getOwnedRepositories_WithBackgroundFetchInFlight_FetchesInteractiveMissInItsOwnLane() {
+        // given
+        List<UpstreamExecutor.Lane> fetchLanes = new CopyOnWriteArrayList<>();
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
+        when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenAnswer(invocation -> Mono.deferContextual(context -> {
+            fetchLanes.add(context.getOrDefault(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.INTERACTIVE));
+            return Mono.just(ResponseEntity.ok(Flux.<GithubRepoResponse>empty())).delayElement(Duration.ofMillis(100));
+        }));
+
+        // when
+        Mono<List<Repository>> background = githubService.getOwnedRepositories(username)
+                .contextWrite(Context.of(UpstreamExecutor.LANE_CONTEXT_KEY, UpstreamExecutor.Lane.BACKGROUND));
+        Mono<List<Repository>> interactive = githubService.getOwnedRepositories(username);
+
+        // then
+        StepVerifier.create(Mono.zip(background, interactive))
+                .expectNextCount(1)
+                .verifyComplete();
+        Assertions.assertEquals(2, fetchLanes.size());
+        Assertions.assertTrue(fetchLanes.containsAll(List.of(UpstreamExecutor.Lane.BACKGROUND, UpstreamExecutor.Lane.INTERACTIVE)));
+    }
+
     @Test
     void getNonForkRepositories_WithUserNotFound_ReturnsEmpty() {
         // given
@@ -117,7 +344,7 @@ class GithubServiceTests {
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
-        when(responseSpecRepo.bodyToFlux((Class<Object>) any())).thenReturn(Flux.empty());
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.just(ResponseEntity.ok(Flux.empty())));
 
         // when
         Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(nonexistentUser);
@@ -135,7 +362,7 @@ class GithubServiceTests {
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
-        when(responseSpecRepo.bodyToFlux((Class<Object>) any())).thenReturn(Flux.error(ex));
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.error(ex));
 
         // when
         Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
@@ -153,7 +380,7 @@ class GithubServiceTests {
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
-        when(responseSpecRepo.bodyToFlux((Class<Object>) any())).thenReturn(Flux.error(ex));
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.error(ex));
 
         // when
         Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
@@ -171,7 +398,7 @@ class GithubServiceTests {
         when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.header(anyString(), anyString())).thenReturn(requestHeadersSpecRepo);
         when(requestHeadersSpecRepo.retrieve()).thenReturn(responseSpecRepo);
-        when(responseSpecRepo.bodyToFlux((Class<Object>) any())).thenReturn(Flux.error(ex));
+        when(responseSpecRepo.toEntityFlux((Class<Object>) any())).thenReturn(Mono.error(ex));
 
         // when
         Flux<Repository> repositoryFlux = githubService.getNonForkRepositories(username);
@@ -0,0 +1,269 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.InvalidWebhookSignatureException;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.models.WebhookEvent;
+import com.exercise.github.services.GithubService;
+import com.exercise.github.services.GithubWebhookService;
+import com.exercise.github.services.InMemoryRepositoryCache;
+import com.exercise.github.services.PeerClient;
+import com.exercise.github.services.RepositoryCache;
+import com.exercise.github.services.WebhookSignatureVerifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GithubWebhookServiceTests {
+
+    @Mock
+    private GithubService githubService;
+
+    private RepositoryCache repositoryCache;
+    private GithubWebhookService webhookService;
+
+    String owner = "octocat";
+    String repo = "public-repo";
+
+    @BeforeEach
+    void setUp() {
+        repositoryCache = new InMemoryRepositoryCache();
+        webhookService = new GithubWebhookService(repositoryCache, githubService, new ObjectMapper());
+        repositoryCache.put(owner, List.of(new Repository(repo, owner, List.of(
+                new Branch("main", new Commit("1111111111111111111111111111111111111111")),
+                new Branch("feature", new Commit("4444444444444444444444444444444444444444"))))));
+    }
+
+    @Test
+    void applyBatch_WithPush_UpdatesOnlyThatBranch() {
+        // when
+        apply(event("push", "d1", "push-main-1.json"));
+
+        // then
+        Assertions.assertEquals("2222222222222222222222222222222222222222", sha("main"));
+        Assertions.assertEquals("4444444444444444444444444444444444444444", sha("feature"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void applyBatch_WithDelete_RemovesOnlyThatBranch() {
+        // when
+        apply(event("delete", "d1", "delete-feature.json"));
+
+        // then
+        Assertions.assertNull(sha("feature"));
+        Assertions.assertEquals("1111111111111111111111111111111111111111", sha("main"));
+    }
+
+    @Test
+    void applyBatch_WithDuplicateDelivery_AppliesItOnce() {
+        // when
+        apply(event("push", "d1", "push-main-1.json"),
+                event("push", "d2", "push-main-2.json"),
+                event("push", "d1", "push-main-1.json"));
+
+        // then
+        Assertions.assertEquals("3333333333333333333333333333333333333333", sha("main"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void applyBatch_WithForcePushBackToEarlierHead_AppliesIt() {
+        // when: main goes 1111 -> 2222, then is reset back to 1111
+        apply(event("push", "d1", "push-main-1.json"));
+        apply(event("push", "d2", "push-main-revert.json"));
+
+        // then
+        Assertions.assertEquals("1111111111111111111111111111111111111111", sha("main"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void applyBatch_WithOutOfOrderPushesInOneBatch_ReordersThem() {
+        // when
+        apply(event("push", "d2", "push-main-2.json"), event("push", "d1", "push-main-1.json"));
+
+        // then
+        Assertions.assertEquals("3333333333333333333333333333333333333333", sha("main"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void applyBatch_WithLatePushAcrossBatches_IgnoresIt() {
+        // given
+        apply(event("push", "d1", "push-main-1.json"));
+        apply(event("push", "d2", "push-main-2.json"));
+
+        // when
+        apply(event("push", "d1-redelivered", "push-main-1.json"));
+
+        // then
+        Assertions.assertEquals("3333333333333333333333333333333333333333", sha("main"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void applyBatch_WithPushAfterBranchDeletion_DoesNotResurrectBranch() {
+        // when
+        apply(event("push", "d1", "push-feature-deleted.json"));
+        apply(event("push", "d2", "push-feature-1.json"));
+
+        // then
+        Assertions.assertNull(sha("feature"));
+    }
+
+    @Test
+    void applyBatch_WithUnorderablePush_RefetchesRepository() {
+        // given
+        when(githubService.getBranches(anyString(), anyString())).thenReturn(Mono.just(List.of(
+                new Branch("main", new Commit("3333333333333333333333333333333333333333")))));
+
+        // when
+        apply(event("push", "d2", "push-main-2.json"));
+
+        // then
+        Assertions.assertEquals("3333333333333333333333333333333333333333", sha("main"));
+        Assertions.assertNull(sha("feature"));
+        verify(githubService, times(1)).getBranches(owner, repo);
+    }
+
+    @Test
+    void applyBatch_WithBranchCreated_RefetchesRepository() {
+        // given
+        when(githubService.getBranches(anyString(), anyString())).thenReturn(Mono.just(List.of(
+                new Branch("main", new Commit("1111111111111111111111111111111111111111")),
+                new Branch("release", new Commit("6666666666666666666666666666666666666666")))));
+
+        // when
+        apply(event("create", "d1", "create-release.json"));
+
+        // then
+        Assertions.assertEquals("6666666666666666666666666666666666666666", sha("release"));
+    }
+
+    @Test
+    void applyBatch_WithRepositoryDeleted_RemovesRepository() {
+        // when
+        apply(event("repository", "d1", "repository-deleted.json"));
+
+        // then
+        Assertions.assertTrue(repositoryCache.get(owner).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void applyBatch_WithFork_LeavesCacheUnchanged() {
+        // when
+        apply(event("fork", "d1", "fork.json"));
+
+        // then
+        Assertions.assertEquals("1111111111111111111111111111111111111111", sha("main"));
+        verifyNoInteractions(githubService);
+    }
+
+    @Test
+    void parse_WithUnsupportedEventType_ReturnsEmpty() {
+        Assertions.assertTrue(webhookService.parse("issues", "d1", "{}".getBytes(StandardCharsets.UTF_8)).isEmpty());
+    }
+
+    @Test
+    void parse_WithMalformedPayload_ThrowsException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                webhookService.parse("push", "d1", "not json".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void verify_WithMatchingSignature_Passes() {
+        // given
+        WebhookSignatureVerifier verifier = verifier("It's a Secret to Everybody");
+        byte[] payload = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+        // then: example from the GitHub documentation on validating webhook deliveries
+        Assertions.assertDoesNotThrow(() -> verifier.verify(payload,
+                "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17"));
+    }
+
+    @Test
+    void applyBatch_WithDeliveriesForUserOfOtherPeer_ForwardsOneEvictionToOwner() {
+        // given
+        PeerClient peerClient = mock(PeerClient.class);
+        when(peerClient.isOwner(owner)).thenReturn(false);
+        when(peerClient.evictOnOwner(owner)).thenReturn(Mono.empty());
+        ReflectionTestUtils.setField(webhookService, "peerClient", peerClient);
+
+        // when
+        apply(event("push", "d1", "push-main-1.json"), event("push", "d2", "push-main-2.json"));
+
+        // then
+        verify(peerClient, times(1)).evictOnOwner(owner);
+        Assertions.assertEquals("3333333333333333333333333333333333333333", sha("main")); // applied locally as well
+    }
+
+    @Test
+    void verify_WithWrongSignature_ThrowsException() {
+        // given
+        WebhookSignatureVerifier verifier = verifier("It's a Secret to Everybody");
+        byte[] payload = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+        // then
+        Assertions.assertThrows(InvalidWebhookSignatureException.class, () -> verifier.verify(payload, "sha256=00"));
+        Assertions.assertThrows(InvalidWebhookSignatureException.class, () -> verifier.verify(payload, null));
+    }
+
+    @Test
+    void verify_WithoutConfiguredSecret_ThrowsException() {
+        // given
+        WebhookSignatureVerifier verifier = verifier("");
+        byte[] payload = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+        // then
+        Assertions.assertThrows(InvalidWebhookSignatureException.class, () -> verifier.verify(payload, "sha256=00"));
+    }
+
+    private void apply(WebhookEvent... events) {
+        StepVerifier.create(webhookService.applyBatch(List.of(events)))
+                .verifyComplete();
+    }
+
+    private WebhookEvent event(String type, String deliveryId, String payloadFile) {
+        return webhookService.parse(type, deliveryId, payload(payloadFile)).orElseThrow();
+    }
+
+    private String sha(String branch) {
+        return repositoryCache.getRepository(owner, repo).orElseThrow().getBranches().stream()
+                .filter(candidate -> candidate.getName().equals(branch))
+                .map(candidate -> candidate.getCommit().getSha())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static byte[] payload(String file) {
+        try (InputStream in = GithubWebhookServiceTests.class.getResourceAsStream("/webhooks/" + file)) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static WebhookSignatureVerifier verifier(String secret) {
+        WebhookSignatureVerifier verifier = new WebhookSignatureVerifier();
+        ReflectionTestUtils.setField(verifier, "secret", secret);
+        return verifier;
+    }
+}
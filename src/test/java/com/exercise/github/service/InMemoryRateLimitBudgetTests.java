@@ -0,0 +1,46 @@
+package com.exercise.github.service;
+
+import com.exercise.github.services.InMemoryRateLimitBudget;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+class InMemoryRateLimitBudgetTests {
+
+    private final InMemoryRateLimitBudget budget = new InMemoryRateLimitBudget();
+
+    @Test
+    void update_WithOutOfOrderReports_OnlyLowersWithinWindow() {
+        // given
+        Instant reset = Instant.now().plusSeconds(60);
+        budget.update(5, reset);
+
+        // when
+        budget.update(3, reset);
+        budget.update(4, reset); // sent before the report of 3, arrived after it
+        budget.update(5000, reset.minusSeconds(3600)); // a late report of the previous window
+
+        // then
+        Assertions.assertEquals(reset, budget.resetAt());
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(budget.tryAcquire());
+        }
+        Assertions.assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void update_WithLaterWindow_ReplacesBudget() {
+        // given
+        Instant reset = Instant.now().plusSeconds(60);
+        budget.update(0, reset);
+
+        // when
+        Instant nextReset = reset.plusSeconds(3600);
+        budget.update(4999, nextReset);
+
+        // then
+        Assertions.assertEquals(nextReset, budget.resetAt());
+        Assertions.assertTrue(budget.tryAcquire());
+    }
+}
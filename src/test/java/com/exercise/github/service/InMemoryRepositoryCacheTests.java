@@ -0,0 +1,31 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.InMemoryRepositoryCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+class InMemoryRepositoryCacheTests {
+
+    private final InMemoryRepositoryCache repositoryCache = new InMemoryRepositoryCache();
+
+    @Test
+    void put_BeyondMaxEntries_EvictsLeastRecentlyUsed() {
+        // given
+        ReflectionTestUtils.setField(repositoryCache, "maxEntries", 2);
+        repositoryCache.put("alice", List.of(new Repository("repo1", "alice", List.of())));
+        repositoryCache.put("bob", List.of(new Repository("repo2", "bob", List.of())));
+        repositoryCache.get("alice");
+
+        // when
+        repositoryCache.put("carol", List.of(new Repository("repo3", "carol", List.of())));
+
+        // then
+        Assertions.assertTrue(repositoryCache.contains("alice"));
+        Assertions.assertFalse(repositoryCache.contains("bob"));
+        Assertions.assertTrue(repositoryCache.contains("carol"));
+    }
+}
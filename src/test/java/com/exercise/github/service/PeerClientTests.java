@@ -0,0 +1,87 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.RateLimitExceededException;
+import com.exercise.github.services.PeerClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class PeerClientTests {
+
+    @Test
+    void getFromOwner_WithRetryAfterInSeconds_ReportsResetTime() {
+        // given
+        PeerClient peerClient = peerClientAnswering503("120");
+
+        // when
+        Instant before = Instant.now();
+        RateLimitExceededException ex = rateLimitExceeded(peerClient);
+
+        // then
+        Assertions.assertFalse(ex.getResetAt().isBefore(before.plusSeconds(120)));
+        Assertions.assertFalse(ex.getResetAt().isAfter(Instant.now().plusSeconds(120)));
+    }
+
+    @Test
+    void getFromOwner_WithRetryAfterAsHttpDate_ReportsResetTime() {
+        // given
+        Instant resetAt = Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.SECONDS);
+        PeerClient peerClient = peerClientAnswering503(DateTimeFormatter.RFC_1123_DATE_TIME.format(resetAt.atOffset(ZoneOffset.UTC)));
+
+        // when
+        RateLimitExceededException ex = rateLimitExceeded(peerClient);
+
+        // then
+        Assertions.assertEquals(resetAt, ex.getResetAt());
+    }
+
+    @Test
+    void getFromOwner_WithMalformedRetryAfter_ReportsUnknownResetTime() {
+        // given
+        PeerClient peerClient = peerClientAnswering503("soon");
+
+        // when
+        RateLimitExceededException ex = rateLimitExceeded(peerClient);
+
+        // then
+        Assertions.assertNull(ex.getResetAt());
+    }
+
+    private static PeerClient peerClientAnswering503(String retryAfter) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> Mono.just(
+                ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, retryAfter).build()));
+        PeerClient peerClient = new PeerClient(builder);
+        ReflectionTestUtils.setField(peerClient, "self", "http://peer-a");
+        ReflectionTestUtils.setField(peerClient, "urls", new String[]{"http://peer-a", "http://peer-b"});
+        ReflectionTestUtils.setField(peerClient, "secret", "secret");
+        ReflectionTestUtils.setField(peerClient, "virtualNodes", 100);
+        ReflectionTestUtils.setField(peerClient, "timeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(peerClient, "hotKeyThreshold", 10);
+        ReflectionTestUtils.setField(peerClient, "hotKeyWindow", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(peerClient, "hotKeyTtl", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(peerClient, "hotKeyCapacity", 1000);
+        peerClient.start();
+        return peerClient;
+    }
+
+    private static RateLimitExceededException rateLimitExceeded(PeerClient peerClient) {
+        AtomicReference<RateLimitExceededException> error = new AtomicReference<>();
+        StepVerifier.create(peerClient.getFromOwner("octocat"))
+                .expectErrorSatisfies(ex -> error.set(Assertions.assertInstanceOf(RateLimitExceededException.class, ex)))
+                .verify();
+        return error.get();
+    }
+}
@@ -0,0 +1,61 @@
+package com.exercise.github.service;
+
+import com.exercise.github.services.PeerRing;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PeerRingTests {
+
+    List<String> peers = List.of("http://peer-a:8080", "http://peer-b:8080", "http://peer-c:8080");
+
+    @Test
+    void ownerOf_WithDifferentCase_ReturnsSameOwner() {
+        // given
+        PeerRing ring = new PeerRing(peers, 100);
+
+        // then
+        Assertions.assertEquals(ring.ownerOf("octocat"), ring.ownerOf("OctoCat"));
+        Assertions.assertEquals(ring.ownerOf("octocat"), new PeerRing(peers, 100).ownerOf("octocat"));
+    }
+
+    @Test
+    void ownerOf_WithVirtualNodes_SpreadsUsersEvenly() {
+        // given
+        PeerRing ring = new PeerRing(peers, 100);
+        Map<String, Integer> owned = new HashMap<>();
+
+        // when
+        for (int i = 0; i < 3000; i++) {
+            owned.merge(ring.ownerOf("user-" + i), 1, Integer::sum);
+        }
+
+        // then
+        Assertions.assertEquals(3, owned.size());
+        owned.values().forEach(count -> Assertions.assertTrue(count > 700 && count < 1300, "unbalanced: " + owned));
+    }
+
+    @Test
+    void ownerOf_WithPeerRemoved_OnlyMovesItsUsers() {
+        // given
+        PeerRing before = new PeerRing(peers, 100);
+        PeerRing after = new PeerRing(peers.subList(0, 2), 100);
+
+        // then
+        for (int i = 0; i < 3000; i++) {
+            String owner = before.ownerOf("user-" + i);
+            if (!owner.equals(peers.get(2))) {
+                Assertions.assertEquals(owner, after.ownerOf("user-" + i));
+            }
+        }
+    }
+
+    @Test
+    void constructor_WithoutPeers_ThrowsException() {
+        // when
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PeerRing(List.of(), 100));
+    }
+}
@@ -0,0 +1,98 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.services.PktLineParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class PktLineParserTests {
+
+    List<Branch> helloWorldBranches = List.of(
+            new Branch("feature/login", new Commit("2736fab291f04e69b62d490c3c09361f5b82461a")),
+            new Branch("main", new Commit("b28b7af69320201d1cf206ebf28373980add1451")),
+            new Branch("release-1.0", new Commit("4e4b162c26be946bd7732ede961d88d7d03a902a")));
+
+    @Test
+    void feed_WithRecordedAdvertisement_ReturnsOnlyBranchHeads() throws IOException {
+        // given
+        PktLineParser parser = new PktLineParser();
+
+        // when
+        List<Branch> branches = parser.feed(ByteBuffer.wrap(read("git/hello-world.pkt")));
+        parser.finish();
+
+        // then
+        Assertions.assertEquals(helloWorldBranches, branches);
+    }
+
+    @Test
+    void feed_WithAdvertisementSplitAtEveryByte_ReturnsSameBranches() throws IOException {
+        // given
+        byte[] advertisement = read("git/hello-world.pkt");
+        PktLineParser parser = new PktLineParser();
+        List<Branch> branches = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < advertisement.length; i++) {
+            branches.addAll(parser.feed(ByteBuffer.wrap(advertisement, i, 1)));
+        }
+        parser.finish();
+
+        // then
+        Assertions.assertEquals(helloWorldBranches, branches);
+    }
+
+    @Test
+    void feed_WithManyBranchesInDirectBuffers_ReturnsEveryBranch() throws IOException {
+        // given
+        byte[] advertisement = read("git/many-branches.pkt");
+        PktLineParser parser = new PktLineParser();
+        List<Branch> branches = new ArrayList<>();
+
+        // when
+        for (int offset = 0; offset < advertisement.length; offset += 1000) {
+            int length = Math.min(1000, advertisement.length - offset);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(length).put(advertisement, offset, length).flip();
+            branches.addAll(parser.feed(chunk));
+        }
+        parser.finish();
+
+        // then
+        Assertions.assertEquals(301, branches.size());
+        Assertions.assertEquals(new Branch("main", new Commit("b28b7af69320201d1cf206ebf28373980add1451")), branches.get(0));
+        Assertions.assertEquals(new Branch("topic/branch-000", new Commit("b6589fc6ab0dc82cf12099d1c2d40ab994e8410c")), branches.get(1));
+    }
+
+    @Test
+    void finish_WithTruncatedAdvertisement_ThrowsException() throws IOException {
+        // given
+        byte[] advertisement = read("git/hello-world.pkt");
+        PktLineParser parser = new PktLineParser();
+        parser.feed(ByteBuffer.wrap(advertisement, 0, advertisement.length - 20));
+
+        // then
+        Assertions.assertThrows(IllegalStateException.class, parser::finish);
+    }
+
+    @Test
+    void feed_WithHtmlPage_ThrowsException() {
+        // given
+        PktLineParser parser = new PktLineParser();
+        ByteBuffer page = ByteBuffer.wrap("<!DOCTYPE html><html></html>".getBytes(StandardCharsets.US_ASCII));
+
+        // then
+        Assertions.assertThrows(IllegalStateException.class, () -> parser.feed(page));
+    }
+
+    private byte[] read(String path) throws IOException {
+        return new ClassPathResource(path).getContentAsByteArray();
+    }
+}
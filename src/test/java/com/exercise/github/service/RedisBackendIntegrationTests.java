@@ -0,0 +1,189 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.RedisRateLimitBudget;
+import com.exercise.github.services.RedisRepositoryCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs two instances of the Redis cache and rate-limit backends against one {@link RedisStandIn}.
+ */
+class RedisBackendIntegrationTests {
+
+    private RedisStandIn redis;
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+    String owner = "octocat";
+    Repository repository1 = new Repository("repo1", owner, List.of(new Branch("main", new Commit("sha1"))));
+    Repository repository2 = new Repository("repo2", owner, List.of(new Branch("main", new Commit("sha2"))));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new RedisStandIn();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RedisMessageListenerContainer container : listenerContainers) {
+            container.destroy();
+        }
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+        redis.close();
+    }
+
+    @Test
+    void repositoryCache_WithTwoInstances_SharesListings() {
+        // given
+        RedisRepositoryCache instanceA = cache();
+        RedisRepositoryCache instanceB = cache();
+
+        // when
+        instanceA.put(owner, List.of(repository1), "W/\"etag\"");
+
+        // then
+        Assertions.assertEquals(Optional.of(List.of(repository1)), instanceB.get("OctoCat"));
+        Assertions.assertEquals("W/\"etag\"", instanceB.getForRevalidation(owner).orElseThrow().getEtag());
+    }
+
+    @Test
+    void repositoryCache_WithWriteOnOtherInstance_InvalidatesNearCache() {
+        // given
+        RedisRepositoryCache instanceA = cache();
+        RedisRepositoryCache instanceB = cache();
+        ReflectionTestUtils.setField(instanceB, "nearTtl", Duration.ofHours(1)); // only an invalidation can refresh it
+        instanceA.put(owner, List.of(repository1));
+        Assertions.assertEquals(Optional.of(List.of(repository1)), instanceB.get(owner));
+
+        // when
+        instanceA.putRepository(owner, repository2);
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> instanceB.get(owner).equals(Optional.of(List.of(repository1, repository2))));
+    }
+
+    @Test
+    void repositoryCache_WithEvictOnOtherInstance_InvalidatesNearCache() {
+        // given
+        RedisRepositoryCache instanceA = cache();
+        RedisRepositoryCache instanceB = cache();
+        ReflectionTestUtils.setField(instanceB, "nearTtl", Duration.ofHours(1));
+        instanceA.put(owner, List.of(repository1));
+        Assertions.assertTrue(instanceB.contains(owner));
+
+        // when
+        instanceA.evict(owner);
+
+        // then
+        await().atMost(Duration.ofSeconds(5)).until(() -> !instanceB.contains(owner));
+    }
+
+    @Test
+    void rateLimitBudget_WithTwoInstances_NeverSpendsMoreThanReported() throws Exception {
+        // given
+        RedisRateLimitBudget instanceA = new RedisRateLimitBudget(template());
+        RedisRateLimitBudget instanceB = new RedisRateLimitBudget(template());
+        Instant reset = Instant.now().plusSeconds(60);
+        instanceA.update(50, reset);
+
+        // when
+        List<Callable<Boolean>> acquisitions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            acquisitions.add(i % 2 == 0 ? instanceA::tryAcquire : instanceB::tryAcquire);
+        }
+        int acquired = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Boolean> acquisition : executor.invokeAll(acquisitions)) {
+                acquired += acquisition.get() ? 1 : 0;
+            }
+        }
+
+        // then
+        Assertions.assertEquals(50, acquired);
+        Assertions.assertFalse(instanceB.tryAcquire());
+        Assertions.assertEquals(reset.getEpochSecond(), instanceB.resetAt().getEpochSecond());
+    }
+
+    @Test
+    void rateLimitBudget_WithOutOfOrderReports_OnlyLowersWithinWindow() {
+        // given
+        RedisRateLimitBudget instanceA = new RedisRateLimitBudget(template());
+        RedisRateLimitBudget instanceB = new RedisRateLimitBudget(template());
+        Instant reset = Instant.now().plusSeconds(60);
+        instanceA.update(5, reset);
+
+        // when
+        instanceB.update(3, reset);
+        instanceA.update(4, reset); // sent before the report of 3, arrived after it
+        instanceB.update(5000, reset.minusSeconds(3600)); // a late report of the previous window
+
+        // then
+        Assertions.assertEquals(reset.getEpochSecond(), instanceA.resetAt().getEpochSecond());
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(instanceA.tryAcquire());
+        }
+        Assertions.assertFalse(instanceB.tryAcquire());
+
+        // when
+        Instant nextReset = reset.plusSeconds(3600);
+        instanceA.update(4999, nextReset);
+
+        // then
+        Assertions.assertEquals(nextReset.getEpochSecond(), instanceB.resetAt().getEpochSecond());
+        Assertions.assertTrue(instanceB.tryAcquire());
+    }
+
+    @Test
+    void rateLimitBudget_WithoutReportedBudget_AllowsRequests() {
+        // given
+        RedisRateLimitBudget budget = new RedisRateLimitBudget(template());
+
+        // then
+        Assertions.assertTrue(budget.tryAcquire());
+        Assertions.assertNull(budget.resetAt());
+    }
+
+    private RedisRepositoryCache cache() {
+        StringRedisTemplate template = template();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(template.getRequiredConnectionFactory());
+        container.afterPropertiesSet();
+        RedisRepositoryCache cache = new RedisRepositoryCache(template, new ObjectMapper(), container);
+        container.start();
+        listenerContainers.add(container);
+        return cache;
+    }
+
+    private StringRedisTemplate template() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("127.0.0.1", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+        return new StringRedisTemplate(connectionFactory);
+    }
+}
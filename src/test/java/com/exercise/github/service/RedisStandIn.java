@@ -0,0 +1,377 @@
+package com.exercise.github.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * A minimal in-process stand-in for a Redis server, speaking RESP2 over a local socket.
+ * It implements just the commands used by the Redis cache and rate-limit backends (strings, counters, expiry,
+ * optimistic transactions and pub/sub), so that they can be tested against a real Lettuce connection without an
+ * external server.
+ */
+class RedisStandIn implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> data = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>(); // Bumped on every write, for WATCH
+    private long version;
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    RedisStandIn() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("redis-stand-in").start(this::accept);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Connection connection = new Connection(serverSocket.accept());
+                Thread.ofVirtual().start(connection::serve);
+            } catch (IOException ex) {
+                return; // closed
+            }
+        }
+    }
+
+    private Object execute(Connection connection, List<String> command) {
+        String name = command.get(0).toUpperCase(Locale.ROOT);
+        if (connection.queued != null && !List.of("EXEC", "DISCARD", "MULTI", "WATCH").contains(name)) {
+            connection.queued.add(command);
+            return new Status("QUEUED");
+        }
+        return switch (name) {
+            case "HELLO" -> new ErrorReply("ERR unknown command 'HELLO'"); // makes the client fall back to RESP2
+            case "CLIENT", "SELECT", "AUTH" -> Status.OK;
+            case "PING" -> new Status("PONG");
+            case "QUIT" -> {
+                connection.closeAfterReply = true;
+                yield Status.OK;
+            }
+            case "GET" -> get(command.get(1));
+            case "SET" -> set(command);
+            case "SETEX" -> set(List.of("SET", command.get(1), command.get(3), "EX", command.get(2)));
+            case "PSETEX" -> set(List.of("SET", command.get(1), command.get(3), "PX", command.get(2)));
+            case "DEL" -> delete(command.subList(1, command.size()));
+            case "EXISTS" -> command.subList(1, command.size()).stream().filter(key -> get(key) != null).count();
+            case "INCR" -> increment(command.get(1), 1);
+            case "DECR" -> increment(command.get(1), -1);
+            case "INCRBY" -> increment(command.get(1), Long.parseLong(command.get(2)));
+            case "DECRBY" -> increment(command.get(1), -Long.parseLong(command.get(2)));
+            case "EXPIRE" -> expire(command.get(1), Long.parseLong(command.get(2)) * 1000);
+            case "PEXPIRE" -> expire(command.get(1), Long.parseLong(command.get(2)));
+            case "TTL" -> ttl(command.get(1), 1000);
+            case "PTTL" -> ttl(command.get(1), 1);
+            case "WATCH" -> watch(connection, command.subList(1, command.size()));
+            case "UNWATCH" -> {
+                connection.watched.clear();
+                yield Status.OK;
+            }
+            case "MULTI" -> {
+                connection.queued = new ArrayList<>();
+                yield Status.OK;
+            }
+            case "EXEC" -> exec(connection);
+            case "DISCARD" -> {
+                connection.queued = null;
+                connection.watched.clear();
+                yield Status.OK;
+            }
+            case "PUBLISH" -> publish(command.get(1), command.get(2));
+            case "SUBSCRIBE" -> subscribe(connection, command.subList(1, command.size()));
+            case "UNSUBSCRIBE" -> unsubscribe(connection, command.subList(1, command.size()));
+            default -> new ErrorReply("ERR unknown command '" + command.get(0) + "'");
+        };
+    }
+
+    private synchronized Object watch(Connection connection, List<String> keys) {
+        if (connection.queued != null) {
+            return new ErrorReply("ERR WATCH inside MULTI is not allowed");
+        }
+        for (String key : keys) {
+            get(key); // expires the key first, as a write
+            connection.watched.put(key, versions.getOrDefault(key, 0L));
+        }
+        return Status.OK;
+    }
+
+    private synchronized Object exec(Connection connection) {
+        if (connection.queued == null) {
+            return new ErrorReply("ERR EXEC without MULTI");
+        }
+        List<List<String>> queued = connection.queued;
+        connection.queued = null;
+        boolean changed = connection.watched.entrySet().stream()
+                .anyMatch(watch -> {
+                    get(watch.getKey());
+                    return !watch.getValue().equals(versions.getOrDefault(watch.getKey(), 0L));
+                });
+        connection.watched.clear();
+        if (changed) {
+            return NULL_ARRAY;
+        }
+        List<Object> replies = new ArrayList<>();
+        for (List<String> command : queued) {
+            replies.add(execute(connection, command));
+        }
+        return replies;
+    }
+
+    private synchronized void touch(String key) {
+        versions.put(key, ++version);
+    }
+
+    private synchronized String get(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expired()) {
+            data.remove(key);
+            touch(key);
+            return null;
+        }
+        return entry == null ? null : entry.value;
+    }
+
+    private synchronized Object set(List<String> command) {
+        String key = command.get(1);
+        long expiresAt = 0;
+        boolean onlyIfAbsent = false;
+        boolean onlyIfPresent = false;
+        for (int i = 3; i < command.size(); i++) {
+            switch (command.get(i).toUpperCase(Locale.ROOT)) {
+                case "EX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(command.get(++i)) * 1000;
+                case "PX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(command.get(++i));
+                case "NX" -> onlyIfAbsent = true;
+                case "XX" -> onlyIfPresent = true;
+                default -> {
+                    return new ErrorReply("ERR syntax error");
+                }
+            }
+        }
+        boolean present = get(key) != null;
+        if ((onlyIfAbsent && present) || (onlyIfPresent && !present)) {
+            return null;
+        }
+        data.put(key, new Entry(command.get(2), expiresAt));
+        touch(key);
+        return Status.OK;
+    }
+
+    private synchronized long delete(List<String> keys) {
+        keys.forEach(this::touch);
+        return keys.stream().filter(key -> get(key) != null && data.remove(key) != null).count();
+    }
+
+    private synchronized Object increment(String key, long delta) {
+        String current = get(key);
+        long value;
+        try {
+            value = (current == null ? 0 : Long.parseLong(current)) + delta;
+        } catch (NumberFormatException ex) {
+            return new ErrorReply("ERR value is not an integer or out of range");
+        }
+        long expiresAt = current == null ? 0 : data.get(key).expiresAt;
+        data.put(key, new Entry(String.valueOf(value), expiresAt));
+        touch(key);
+        return value;
+    }
+
+    private synchronized long expire(String key, long millis) {
+        String current = get(key);
+        if (current == null) {
+            return 0;
+        }
+        data.put(key, new Entry(current, System.currentTimeMillis() + millis));
+        touch(key);
+        return 1;
+    }
+
+    private synchronized long ttl(String key, long unit) {
+        if (get(key) == null) {
+            return -2;
+        }
+        long expiresAt = data.get(key).expiresAt;
+        return expiresAt == 0 ? -1 : Math.max(0, expiresAt - System.currentTimeMillis()) / unit;
+    }
+
+    private long publish(String channel, String message) {
+        Set<Connection> receivers = subscribers.getOrDefault(channel, Set.of());
+        for (Connection receiver : receivers) {
+            receiver.push(List.of("message", channel, message));
+        }
+        return receivers.size();
+    }
+
+    private Object subscribe(Connection connection, List<String> channels) {
+        for (String channel : channels) {
+            subscribers.computeIfAbsent(channel, ignored -> new CopyOnWriteArraySet<>()).add(connection);
+            connection.channels.add(channel);
+            connection.push(List.of("subscribe", channel, (long) connection.channels.size()));
+        }
+        return NO_REPLY;
+    }
+
+    private Object unsubscribe(Connection connection, List<String> channels) {
+        List<String> targets = channels.isEmpty() ? new ArrayList<>(connection.channels) : channels;
+        for (String channel : targets) {
+            removeSubscriber(channel, connection);
+            connection.channels.remove(channel);
+            connection.push(List.of("unsubscribe", channel, (long) connection.channels.size()));
+        }
+        return NO_REPLY;
+    }
+
+    private void removeSubscriber(String channel, Connection connection) {
+        Set<Connection> receivers = subscribers.get(channel);
+        if (receivers != null) {
+            receivers.remove(connection);
+        }
+    }
+
+    private static final Object NO_REPLY = new Object();
+    private static final Object NULL_ARRAY = new Object(); // The reply to an aborted EXEC
+
+    private record Status(String message) {
+        static final Status OK = new Status("OK");
+    }
+
+    private record ErrorReply(String message) {
+    }
+
+    private record Entry(String value, long expiresAt) {
+        boolean expired() {
+            return expiresAt != 0 && expiresAt <= System.currentTimeMillis();
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final Set<String> channels = new CopyOnWriteArraySet<>();
+        private final Map<String, Long> watched = new HashMap<>();
+        private List<List<String>> queued; // Commands of an open MULTI, null outside one
+        private OutputStream out;
+        private boolean closeAfterReply;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void serve() {
+            try (socket) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                out = socket.getOutputStream();
+                List<String> command;
+                while (!closeAfterReply && (command = readCommand(in)) != null) {
+                    if (command.isEmpty()) {
+                        continue;
+                    }
+                    Object reply = execute(this, command);
+                    if (reply != NO_REPLY) {
+                        write(reply);
+                    }
+                }
+            } catch (IOException ex) {
+                // client went away
+            } finally {
+                channels.forEach(channel -> removeSubscriber(channel, this));
+            }
+        }
+
+        private void push(Object reply) {
+            try {
+                write(reply);
+            } catch (IOException ex) {
+                // the subscriber went away, it is removed when its reader notices
+            }
+        }
+
+        private synchronized void write(Object reply) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            encode(reply, buffer);
+            out.write(buffer.toByteArray());
+            out.flush();
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String line = readLine(in);
+        if (line == null) {
+            return null;
+        }
+        if (!line.startsWith("*")) {
+            return line.isBlank() ? List.of() : List.of(line.trim().split("\\s+")); // inline command
+        }
+        int count = Integer.parseInt(line.substring(1));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String header = readLine(in);
+            if (header == null || !header.startsWith("$")) {
+                throw new IOException("Protocol error: expected bulk string");
+            }
+            byte[] value = in.readNBytes(Integer.parseInt(header.substring(1)));
+            in.readNBytes(2); // CRLF
+            command.add(new String(value, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\r') {
+                in.read(); // LF
+                return line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void encode(Object reply, ByteArrayOutputStream out) {
+        if (reply == null) {
+            out.writeBytes("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+        } else if (reply == NULL_ARRAY) {
+            out.writeBytes("*-1\r\n".getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof Status status) {
+            out.writeBytes(("+" + status.message() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof ErrorReply error) {
+            out.writeBytes(("-" + error.message() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof Long number) {
+            out.writeBytes((":" + number + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeBytes(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(bytes);
+            out.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof List<?> list) {
+            out.writeBytes(("*" + list.size() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            list.forEach(element -> encode(element, out));
+        } else {
+            throw new IllegalArgumentException("Unsupported reply: " + reply);
+        }
+    }
+}
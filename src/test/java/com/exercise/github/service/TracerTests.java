@@ -0,0 +1,145 @@
+package com.exercise.github.service;
+
+import com.exercise.github.models.Span;
+import com.exercise.github.services.InMemorySpanExporter;
+import com.exercise.github.services.SpanExporter;
+import com.exercise.github.services.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TracerTests {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+    private Tracer tracer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<SpanExporter> exporters = mock(ObjectProvider.class);
+        when(exporters.getIfAvailable()).thenReturn(exporter);
+        tracer = new Tracer(exporters, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(tracer, "batchWindow", Duration.ofMillis(10));
+        tracer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracer.stop();
+    }
+
+    @Test
+    void trace_WithSpanInContext_ExportsChildOfRequestSpan() throws InterruptedException {
+        // given
+        Span root = tracer.startRootSpan("GET /api/repositories/{username}", null);
+
+        // when
+        StepVerifier.create(tracer.trace("github.branches", Mono.just("branches"), "github.repo", "octocat/hello")
+                        .contextWrite(Context.of(Tracer.SPAN_CONTEXT_KEY, root)))
+                .expectNext("branches")
+                .verifyComplete();
+        tracer.end(root, null);
+
+        // then
+        List<Span> spans = awaitSpans(2);
+        Span child = spans.get(0);
+        Assertions.assertEquals("github.branches", child.getName());
+        Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+        Assertions.assertEquals(root.getSpanId(), child.getParentSpanId());
+        Assertions.assertEquals("octocat/hello", child.getAttributes().get("github.repo"));
+        Assertions.assertNull(child.getError());
+        Assertions.assertTrue(child.getDurationMicros() > 0);
+        Assertions.assertSame(root, spans.get(1));
+    }
+
+    @Test
+    void trace_WithFailingCall_RecordsError() throws InterruptedException {
+        // given
+        Span root = tracer.startRootSpan("GET /api/repositories/{username}", null);
+
+        // when
+        StepVerifier.create(tracer.trace("github.listing", Mono.error(new IllegalStateException("boom")))
+                        .contextWrite(Context.of(Tracer.SPAN_CONTEXT_KEY, root)))
+                .verifyError(IllegalStateException.class);
+
+        // then
+        Assertions.assertEquals("IllegalStateException: boom", awaitSpans(1).get(0).getError());
+    }
+
+    @Test
+    void trace_WithoutSpanInContext_ExportsNothing() throws InterruptedException {
+        // when
+        StepVerifier.create(tracer.trace("github.listing", Mono.just("listing")))
+                .expectNext("listing")
+                .verifyComplete();
+
+        // then
+        Thread.sleep(100);
+        Assertions.assertTrue(exporter.spans().isEmpty());
+    }
+
+    @Test
+    void startRootSpan_WithZeroSampleRate_DoesNotSample() {
+        // given
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+
+        // then
+        Assertions.assertNull(tracer.startRootSpan("GET /api/repositories/{username}", null));
+    }
+
+    @Test
+    void startRootSpan_WithTraceparent_ContinuesCallerDecision() {
+        // given
+        ReflectionTestUtils.setField(tracer, "sampleRate", 0.0);
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+        // when
+        Span sampled = tracer.startRootSpan("GET /api/repositories/{username}", "00-" + traceId + "-00f067aa0ba902b7-01");
+        ReflectionTestUtils.setField(tracer, "sampleRate", 1.0);
+        Span unsampled = tracer.startRootSpan("GET /api/repositories/{username}", "00-" + traceId + "-00f067aa0ba902b7-00");
+
+        // then
+        Assertions.assertEquals(traceId, sampled.getTraceId());
+        Assertions.assertEquals("00f067aa0ba902b7", sampled.getParentSpanId());
+        Assertions.assertEquals("00-" + traceId + "-" + sampled.getSpanId() + "-01", Tracer.traceparent(sampled));
+        Assertions.assertNull(unsampled);
+    }
+
+    @Test
+    void end_CalledTwice_ExportsSpanOnce() throws InterruptedException {
+        // given
+        Span root = tracer.startRootSpan("GET /api/repositories/{username}", null);
+
+        // when
+        tracer.end(root, null);
+        tracer.end(root, "timeout");
+
+        // then
+        Thread.sleep(100);
+        Assertions.assertEquals(1, exporter.spans().size());
+        Assertions.assertNull(exporter.spans().get(0).getError());
+    }
+
+    private List<Span> awaitSpans(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (exporter.spans().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(count, exporter.spans().size());
+        return exporter.spans();
+    }
+}
@@ -0,0 +1,211 @@
+package com.exercise.github.service;
+
+import com.exercise.github.services.AdaptiveConcurrencyLimit;
+import com.exercise.github.services.UpstreamExecutor;
+import com.exercise.github.services.UpstreamExecutor.Lane;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+class UpstreamExecutorTests {
+
+    private UpstreamExecutor upstreamExecutor;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final List<String> started = new ArrayList<>();
+    private final Map<String, Sinks.One<String>> running = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        upstreamExecutor = new UpstreamExecutor(meterRegistry);
+        ReflectionTestUtils.setField(upstreamExecutor, "maxConcurrent", 2);
+        ReflectionTestUtils.setField(upstreamExecutor, "interactiveMaxConcurrent", 2);
+        ReflectionTestUtils.setField(upstreamExecutor, "backgroundMaxConcurrent", 1);
+        upstreamExecutor.start();
+    }
+
+    @Test
+    void submit_WithQueuedBackgroundWork_GrantsInteractiveCallFirst() {
+        // given
+        submit("i1", Lane.INTERACTIVE);
+        submit("b1", Lane.BACKGROUND);
+        submit("b2", Lane.BACKGROUND);
+        submit("i2", Lane.INTERACTIVE);
+
+        // when
+        finish("i1");
+        finish("b1");
+
+        // then
+        Assertions.assertEquals(List.of("i1", "b1", "i2", "b2"), started);
+    }
+
+    @Test
+    void submit_WithBackgroundLaneAtItsShare_QueuesBackgroundButNotInteractive() {
+        // when
+        submit("b1", Lane.BACKGROUND);
+        submit("b2", Lane.BACKGROUND);
+        submit("i1", Lane.INTERACTIVE);
+
+        // then
+        Assertions.assertEquals(List.of("b1", "i1"), started);
+        Assertions.assertEquals(1, upstreamExecutor.queued(Lane.BACKGROUND));
+        Assertions.assertEquals(1, upstreamExecutor.running(Lane.INTERACTIVE));
+    }
+
+    @Test
+    void submit_WithDeadlinePassedWhileQueued_DropsCall() throws InterruptedException {
+        // given
+        submit("i1", Lane.INTERACTIVE);
+        submit("i2", Lane.INTERACTIVE);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        upstreamExecutor.submit(call("i3"))
+                .contextWrite(Context.of(UpstreamExecutor.DEADLINE_CONTEXT_KEY, Instant.now().plusMillis(50)))
+                .subscribe(value -> { }, error::set);
+        submit("i4", Lane.INTERACTIVE);
+        Thread.sleep(100);
+
+        // when
+        finish("i1");
+
+        // then
+        Assertions.assertEquals(List.of("i1", "i2", "i4"), started);
+        Assertions.assertInstanceOf(TimeoutException.class, error.get());
+        Assertions.assertEquals(1.0, meterRegistry.counter("github.upstream.dropped", "lane", "interactive", "reason", "deadline").count());
+    }
+
+    @Test
+    void submit_WithCancelledCaller_NeverStartsCall() {
+        // given
+        submit("i1", Lane.INTERACTIVE);
+        submit("i2", Lane.INTERACTIVE);
+        Disposable cancelled = submit("i3", Lane.INTERACTIVE);
+        submit("i4", Lane.INTERACTIVE);
+
+        // when
+        cancelled.dispose();
+        finish("i1");
+
+        // then
+        Assertions.assertEquals(List.of("i1", "i2", "i4"), started);
+        Assertions.assertEquals(1.0, meterRegistry.counter("github.upstream.dropped", "lane", "interactive", "reason", "cancelled").count());
+    }
+
+    @Test
+    void submit_WithRateLimitedResponse_BacksOffAdaptiveLimit() {
+        // given
+        SimpleMeterRegistry adaptiveRegistry = new SimpleMeterRegistry();
+        UpstreamExecutor adaptiveExecutor = new UpstreamExecutor(adaptiveRegistry);
+        ReflectionTestUtils.setField(adaptiveExecutor, "maxConcurrent", 32);
+        ReflectionTestUtils.setField(adaptiveExecutor, "adaptiveInitialLimit", 16);
+        ReflectionTestUtils.setField(adaptiveExecutor, "adaptiveMinLimit", 4);
+        adaptiveExecutor.start();
+
+        // when
+        StepVerifier.create(adaptiveExecutor.submit(Mono.error(WebClientResponseException.create(
+                        HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", new HttpHeaders(), new byte[0], StandardCharsets.UTF_8))))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        // then
+        Assertions.assertEquals(8, adaptiveExecutor.limit());
+        Assertions.assertEquals(8.0, adaptiveRegistry.get("github.upstream.limit").gauge().value());
+    }
+
+    @Test
+    void submit_WithLimitShrinkingWhileBackgroundSaturated_KeepsSlotsForInteractive() {
+        // given
+        upstreamExecutor = new UpstreamExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(upstreamExecutor, "maxConcurrent", 16);
+        ReflectionTestUtils.setField(upstreamExecutor, "interactiveMaxConcurrent", 16);
+        ReflectionTestUtils.setField(upstreamExecutor, "backgroundMaxConcurrent", 8);
+        ReflectionTestUtils.setField(upstreamExecutor, "adaptiveInitialLimit", 16);
+        ReflectionTestUtils.setField(upstreamExecutor, "adaptiveMinLimit", 4);
+        upstreamExecutor.start();
+        for (int i = 1; i <= 12; i++) {
+            submit("b" + i, Lane.BACKGROUND);
+        }
+        AdaptiveConcurrencyLimit limit = (AdaptiveConcurrencyLimit) ReflectionTestUtils.getField(upstreamExecutor, "limit");
+
+        // when
+        limit.onOverload(); // GitHub answers 429 twice
+        limit.onOverload();
+        for (int i = 1; i <= 5; i++) {
+            finish("b" + i);
+        }
+        submit("i1", Lane.INTERACTIVE);
+
+        // then
+        Assertions.assertEquals(4, upstreamExecutor.limit());
+        Assertions.assertEquals(3, upstreamExecutor.running(Lane.BACKGROUND)); // no queued background call took a freed slot
+        Assertions.assertEquals(4, upstreamExecutor.queued(Lane.BACKGROUND));
+        Assertions.assertTrue(started.contains("i1"));
+    }
+
+    @Test
+    void call_WithAllSlotsTaken_BlocksUntilSlotIsFreed() throws Exception {
+        // given
+        submit("i1", Lane.INTERACTIVE);
+        submit("i2", Lane.INTERACTIVE);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                result.complete(upstreamExecutor.call(Lane.INTERACTIVE, null, () -> "v1"));
+            } catch (Exception ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        while (upstreamExecutor.queued(Lane.INTERACTIVE) == 0) {
+            Thread.sleep(1);
+        }
+        Assertions.assertFalse(result.isDone());
+
+        // when
+        finish("i1");
+
+        // then
+        Assertions.assertEquals("v1", result.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, upstreamExecutor.running(Lane.INTERACTIVE)); // the blocking call freed its slot
+    }
+
+    private Disposable submit(String name, Lane lane) {
+        return upstreamExecutor.submit(call(name))
+                .contextWrite(Context.of(UpstreamExecutor.LANE_CONTEXT_KEY, lane))
+                .subscribe();
+    }
+
+    private Mono<String> call(String name) {
+        return Mono.defer(() -> {
+            started.add(name);
+            Sinks.One<String> sink = Sinks.one();
+            running.put(name, sink);
+            return sink.asMono();
+        });
+    }
+
+    private void finish(String name) {
+        running.remove(name).tryEmitValue(name);
+    }
+}
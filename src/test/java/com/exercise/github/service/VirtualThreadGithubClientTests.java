@@ -0,0 +1,156 @@
+package com.exercise.github.service;
+
+import com.exercise.github.exceptions.GithubUserNotFoundException;
+import com.exercise.github.models.Branch;
+import com.exercise.github.models.Commit;
+import com.exercise.github.models.Repository;
+import com.exercise.github.services.VirtualThreadGithubClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class VirtualThreadGithubClientTests {
+
+    private MockRestServiceServer server;
+    private VirtualThreadGithubClient client;
+
+    String baseUrl = "https://api.github.com";
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl(baseUrl);
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        client = new VirtualThreadGithubClient(builder.build());
+        ReflectionTestUtils.setField(client, "branchesUri", "/repos/{owner}/{repo}/branches");
+        ReflectionTestUtils.setField(client, "reposUri", "/users/{username}/repos?type=owner");
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    void getNonForkRepositories_WithExistingUser_ReturnsRepositoriesWithBranches() {
+        // given
+        server.expect(requestTo(baseUrl + "/users/octocat/repos?type=owner"))
+                .andRespond(withSuccess("""
+                        [{"name":"repo1","fork":false,"owner":{"login":"octocat"}},
+                         {"name":"forked","fork":true,"owner":{"login":"octocat"}},
+                         {"name":"repo2","fork":false,"owner":{"login":"octocat"}}]
+                        """, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(baseUrl + "/repos/octocat/repo1/branches"))
+                .andRespond(withSuccess("[{\"name\":\"main\",\"commit\":{\"sha\":\"sha1\"}}]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(baseUrl + "/repos/octocat/repo2/branches"))
+                .andRespond(withSuccess("[{\"name\":\"dev\",\"commit\":{\"sha\":\"sha2\"}}]", MediaType.APPLICATION_JSON));
+
+        // then: same output and order as the Reactor pipeline
+        StepVerifier.create(client.getNonForkRepositories("octocat"))
+                .expectNext(new Repository("repo1", "octocat", List.of(new Branch("main", new Commit("sha1")))))
+                .expectNext(new Repository("repo2", "octocat", List.of(new Branch("dev", new Commit("sha2")))))
+                .verifyComplete();
+        server.verify();
+    }
+
+    @Test
+    void getNonForkRepositories_WithUserNotFound_ReturnsGithubUserNotFoundException() {
+        // given
+        server.expect(requestTo(baseUrl + "/users/nonexistent/repos?type=owner"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        // then
+        StepVerifier.create(client.getNonForkRepositories("nonexistent"))
+                .verifyError(GithubUserNotFoundException.class);
+    }
+
+    @Test
+    void getNonForkRepositories_WithFailingBranchLookup_ReturnsError() {
+        // given
+        server.expect(requestTo(baseUrl + "/users/octocat/repos?type=owner"))
+                .andRespond(withSuccess("[{\"name\":\"repo1\",\"fork\":false,\"owner\":{\"login\":\"octocat\"}}]",
+                        MediaType.APPLICATION_JSON));
+        server.expect(requestTo(baseUrl + "/repos/octocat/repo1/branches"))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        // then
+        StepVerifier.create(client.getNonForkRepositories("octocat"))
+                .verifyErrorMessage("An error occurred while processing your request.");
+    }
+
+    @Test
+    void fetchNonForkRepositories_WithLastLookupFailingFast_CancelsEarlierLookups() throws IOException {
+        // given: the first two lookups hang, the last one fails at once
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer github = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        github.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/users/octocat/repos")) {
+                respond(exchange, 200, """
+                        [{"name":"repo1","fork":false,"owner":{"login":"octocat"}},
+                         {"name":"repo2","fork":false,"owner":{"login":"octocat"}},
+                         {"name":"repo3","fork":false,"owner":{"login":"octocat"}}]
+                        """);
+            } else if (path.equals("/repos/octocat/repo3/branches")) {
+                respond(exchange, 500, "{}");
+            } else {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, "[]");
+            }
+        });
+        github.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        github.start();
+        VirtualThreadGithubClient slowClient = new VirtualThreadGithubClient(RestClient.builder()
+                .baseUrl("http://localhost:" + github.getAddress().getPort())
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build());
+        ReflectionTestUtils.setField(slowClient, "branchesUri", "/repos/{owner}/{repo}/branches");
+        ReflectionTestUtils.setField(slowClient, "reposUri", "/users/{username}/repos?type=owner");
+
+        try {
+            // then: the failure is reported without waiting for the hanging lookups
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> Assertions.assertThrows(
+                    HttpServerErrorException.class, () -> slowClient.fetchNonForkRepositories("octocat")));
+        } finally {
+            release.countDown();
+            github.stop(0);
+            slowClient.shutdown();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}